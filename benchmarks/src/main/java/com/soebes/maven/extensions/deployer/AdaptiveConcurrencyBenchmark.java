@@ -0,0 +1,166 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deploys a reactor of a few big and many small projects with the {@link AdaptiveConcurrency} into a simulated
+ * repository which is never saturated: every project takes the latency of the requests plus its size at the given
+ * bandwidth. The limit has to grow up to the number of threads in such a repository, the secondary results
+ * {@code peak} and {@code decreases} show whether it does. One operation is the deployment of the whole reactor, only
+ * one is measured because JMH sums the secondary results of all iterations.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.SingleShotTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Fork( 1 )
+@Warmup( iterations = 1 )
+@Measurement( iterations = 1 )
+public class AdaptiveConcurrencyBenchmark
+{
+    /**
+     * {@code size} deploys the big projects first like {@code deployer.deploy.schedule=size}, {@code reactor} deploys
+     * them in between the small ones.
+     */
+    @Param( { "size", "reactor" } )
+    public String schedule;
+
+    /**
+     * The value of {@code deployer.deploy.threads}, the limit starts at one.
+     */
+    @Param( { "8" } )
+    public int threads;
+
+    /**
+     * The latency of every project.
+     */
+    @Param( { "20" } )
+    public long latencyMillis;
+
+    /**
+     * The bandwidth of every connection in bytes per millisecond.
+     */
+    @Param( { "100000" } )
+    public long bytesPerMilli;
+
+    private File directory;
+
+    private List<MavenProject> projects;
+
+    @Setup( Level.Trial )
+    public void createReactor()
+        throws IOException
+    {
+        directory = Files.createTempDirectory( "deployer-benchmark" ).toFile();
+        List<MavenProject> big =
+            new SyntheticReactor( new File( directory, "big" ), 4, 0, 16L * 1024 * 1024, "1.0.0" ).getProjects();
+        List<MavenProject> small =
+            new SyntheticReactor( new File( directory, "small" ), 60, 0, 1024, "1.0.1" ).getProjects();
+        // Every 16th project is a big one.
+        projects = new ArrayList<>();
+        for ( int i = 0; i < small.size(); i++ )
+        {
+            if ( i % 15 == 0 )
+            {
+                projects.add( big.get( i / 15 ) );
+            }
+            projects.add( small.get( i ) );
+        }
+        if ( "size".equals( schedule ) )
+        {
+            projects = SizeSchedule.largestFirst( projects );
+        }
+    }
+
+    @TearDown( Level.Trial )
+    public void deleteReactor()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( directory );
+    }
+
+    @Benchmark
+    public void deploy( ConcurrencyLimit limit )
+        throws Exception
+    {
+        AdaptiveConcurrency concurrency = new AdaptiveConcurrency( "benchmark", 1, threads, null );
+        ProjectExecutor executor =
+            new ProjectExecutor( "deploy", threads, null, WorkerThreads.newThreadFactory( "deploy", false ) );
+        ReactorState.check( executor.execute( projects, concurrency.guard( new ProjectTask()
+        {
+            @Override
+            public void execute( MavenProject project )
+                throws Exception
+            {
+                Thread.sleep( latencyMillis + SizeSchedule.size( project ) / bytesPerMilli );
+            }
+        } ) ) );
+        limit.add( concurrency );
+    }
+
+    /**
+     * Reports the highest limit and the number of decreases of the deployment.
+     */
+    @State( Scope.Thread )
+    @AuxCounters( AuxCounters.Type.EVENTS )
+    public static class ConcurrencyLimit
+    {
+        public long peak;
+
+        public long decreases;
+
+        @Setup( Level.Iteration )
+        public void reset()
+        {
+            peak = 0;
+            decreases = 0;
+        }
+
+        void add( AdaptiveConcurrency concurrency )
+        {
+            peak = concurrency.getPeak();
+            decreases = concurrency.getDecreases();
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calculates the digests of a single artifact which is done for every file that is installed, staged or deployed.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 2 )
+@Measurement( iterations = 5 )
+public class ChecksumBenchmark
+{
+    @Param( { "1KB", "1MB", "64MB" } )
+    public String size;
+
+    private File directory;
+
+    private File file;
+
+    @Setup( Level.Trial )
+    public void createFile()
+        throws IOException
+    {
+        directory = Files.createTempDirectory( "deployer-benchmark" ).toFile();
+        SyntheticReactor reactor =
+            new SyntheticReactor( directory, 1, 0, SyntheticReactor.parseSize( size ), "1.0.0" );
+        file = reactor.getProjects().get( 0 ).getArtifact().getFile();
+    }
+
+    @TearDown( Level.Trial )
+    public void deleteFile()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( directory );
+    }
+
+    @Benchmark
+    public String calculate( TransferredBytes bytes )
+        throws IOException
+    {
+        bytes.add( file.length() );
+        return ChecksumCalculator.calculate( file ).get( "sha1" );
+    }
+
+}
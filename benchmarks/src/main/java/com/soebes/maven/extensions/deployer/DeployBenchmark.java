@@ -0,0 +1,199 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.deployment.DeployRequest;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deploys the whole synthetic reactor the way {@code deployProjects} does it. One operation is the deployment of the
+ * complete reactor into an empty repository.
+ * <ul>
+ * <li>{@code file}: a {@code file://} repository via the generic transfer stack.</li>
+ * <li>{@code fastPath}: the same repository via the {@link FileRepositoryDeployer}.</li>
+ * <li>{@code http}: the {@link HttpRepositoryServer} with the given latency per request.</li>
+ * <li>{@code fileBundle} and {@code httpBundle}: the whole reactor as one bundle via the {@link BundleDeployer}.</li>
+ * </ul>
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 2 )
+@Measurement( iterations = 5 )
+public class DeployBenchmark
+{
+    @Param( { "file", "fastPath", "http", "fileBundle", "httpBundle" } )
+    public String repository;
+
+    /**
+     * The value of {@code deployer.deploy.threads}.
+     */
+    @Param( { "1", "4" } )
+    public int threads;
+
+    /**
+     * The value of {@code deployer.virtualThreads}, which only makes a difference on Java 21 and later.
+     */
+    @Param( { "false", "true" } )
+    public boolean virtual;
+
+    /**
+     * The latency of every request to the HTTP repository.
+     */
+    @Param( { "0" } )
+    public long latencyMillis;
+
+    /**
+     * The value of {@code deployer.deploy.bandwidth} in bytes per second, {@code 0} means unlimited.
+     */
+    @Param( { "0" } )
+    public long bandwidth;
+
+    private HttpRepositoryServer server;
+
+    private BandwidthLimiter limiter;
+
+    private File repositoryDirectory;
+
+    private RemoteRepository remoteRepository;
+
+    private ArtifactRepository artifactRepository;
+
+    private RepositorySystemSession session;
+
+    @Setup( Level.Trial )
+    public void startRepository( ReactorState reactor )
+        throws IOException
+    {
+        repositoryDirectory = new File( reactor.getDirectory(), "deploy-repo" );
+        String url = repositoryDirectory.toURI().toString();
+        if ( repository.startsWith( "http" ) )
+        {
+            server = new HttpRepositoryServer( latencyMillis );
+            url = server.getUrl();
+        }
+        remoteRepository = new RemoteRepository.Builder( "benchmark", "default", url ).build();
+        limiter = bandwidth > 0 ? new BandwidthLimiter( "benchmark", bandwidth, null ) : null;
+        ArtifactRepositoryPolicy policy = new ArtifactRepositoryPolicy();
+        artifactRepository =
+            new MavenArtifactRepository( "benchmark", url, new DefaultRepositoryLayout(), policy, policy );
+    }
+
+    @TearDown( Level.Trial )
+    public void stopRepository()
+    {
+        if ( server != null )
+        {
+            server.close();
+        }
+    }
+
+    @Setup( Level.Invocation )
+    public void emptyRepository( ReactorState reactor )
+        throws IOException
+    {
+        FileUtils.deleteDirectory( repositoryDirectory );
+        session = Resolver.newSession( new File( reactor.getDirectory(), "local-repo" ), new TransferMetrics() );
+        if ( limiter != null )
+        {
+            DefaultRepositorySystemSession throttled = new DefaultRepositorySystemSession( session );
+            throttled.setTransferListener( new ThrottlingTransferListener( session.getTransferListener(),
+                Collections.singletonMap( ThrottlingTransferListener.normalize( remoteRepository.getUrl() ),
+                                          limiter ) ) );
+            session = throttled;
+        }
+    }
+
+    @Benchmark
+    public void deploy( ReactorState reactor, TransferredBytes bytes )
+        throws Exception
+    {
+        if ( repository.endsWith( "Bundle" ) )
+        {
+            String bundleUrl = server == null ? null : server.getUrl() + '/' + HttpRepositoryServer.BUNDLE_PATH;
+            new BundleDeployer( new ChecksumCache(), new Date(), new TransferMetrics() )
+                .deploy( reactor.getProjects(), artifactRepository, new File( reactor.getDirectory(), "bundle" ),
+                         bundleUrl, limiter, RetryPolicy.none(), null );
+            bytes.add( reactor.getBytes() );
+            return;
+        }
+
+        final FileRepositoryDeployer fileRepositoryDeployer = "fastPath".equals( repository )
+                        ? new FileRepositoryDeployer( new ChecksumCache(), new Date(), new TransferMetrics() )
+                        : null;
+        final MetadataBatch metadataBatch = fileRepositoryDeployer != null
+                        ? fileRepositoryDeployer.begin( artifactRepository, limiter, RetryPolicy.none(), null, null )
+                        : null;
+
+        ProjectExecutor executor =
+            new ProjectExecutor( "deploy", threads, null, WorkerThreads.newThreadFactory( "deploy", virtual ) );
+        ReactorState.check( executor.execute( reactor.getProjects(), new ProjectTask()
+        {
+            @Override
+            public void execute( MavenProject project )
+                throws Exception
+            {
+                if ( metadataBatch != null )
+                {
+                    fileRepositoryDeployer.deploy( project, metadataBatch );
+                    return;
+                }
+                DeployRequest request = new DeployRequest();
+                request.setRepository( remoteRepository );
+                request.setArtifacts( Resolver.artifacts( project ) );
+                Resolver.system().deploy( session, request );
+            }
+        } ) );
+        if ( metadataBatch != null )
+        {
+            fileRepositoryDeployer.commit( metadataBatch );
+        }
+        bytes.add( reactor.getBytes() );
+    }
+
+}
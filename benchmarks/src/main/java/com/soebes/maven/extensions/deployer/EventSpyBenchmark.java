@@ -0,0 +1,231 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.execution.DefaultMavenExecutionRequest;
+import org.apache.maven.execution.DefaultMavenExecutionResult;
+import org.apache.maven.execution.ExecutionEvent;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The events of a parallel build ({@code -T}) handed to {@code MavenDeployer.onEvent} by several threads at once. The
+ * events of every project are a {@code ProjectStarted}, a {@code MojoStarted} and a {@code MojoSucceeded} for every
+ * mojo and a {@code ProjectSucceeded}. Every operation is a single event, {@code baseline} only consumes the event,
+ * so the difference is the cost of the spy. Run with {@code -prof gc} for the allocations per event.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Threads( 4 )
+@Fork( 1 )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+public class EventSpyBenchmark
+{
+    @Param( { "1000" } )
+    public int projects;
+
+    @Param( { "10" } )
+    public int mojos;
+
+    private MavenDeployer spy;
+
+    private ExecutionEvent[] events;
+
+    /**
+     * The position of a thread in the events. Every thread starts at a different project, like the threads of the
+     * builder.
+     */
+    @State( Scope.Thread )
+    public static class Cursor
+    {
+        private int next;
+
+        @Setup( Level.Trial )
+        public void start( EventSpyBenchmark benchmark )
+        {
+            next = (int) ( Thread.currentThread().getId() * 7919 % benchmark.events.length );
+        }
+
+        ExecutionEvent next( ExecutionEvent[] events )
+        {
+            ExecutionEvent event = events[next];
+            next = next + 1 == events.length ? 0 : next + 1;
+            return event;
+        }
+    }
+
+    @Setup( Level.Trial )
+    public void createEvents()
+        throws Exception
+    {
+        List<MavenProject> reactor = new ArrayList<>( projects );
+        List<ExecutionEvent> list = new ArrayList<>( projects * ( 2 * mojos + 2 ) );
+        for ( int i = 0; i < projects; i++ )
+        {
+            Model model = new Model();
+            model.setGroupId( SyntheticReactor.GROUP_ID );
+            model.setArtifactId( "project-" + i );
+            model.setVersion( "1.0.0" );
+            model.setBuild( new Build() );
+            MavenProject project = new MavenProject( model );
+            reactor.add( project );
+
+            list.add( new Event( ExecutionEvent.Type.ProjectStarted, null, project ) );
+            for ( int j = 0; j < mojos; j++ )
+            {
+                list.add( new Event( ExecutionEvent.Type.MojoStarted, null, project ) );
+                list.add( new Event( ExecutionEvent.Type.MojoSucceeded, null, project ) );
+            }
+            list.add( new Event( ExecutionEvent.Type.ProjectSucceeded, null, project ) );
+        }
+        events = list.toArray( new ExecutionEvent[list.size()] );
+
+        // The spy indexes the projects of the reactor at the start of the session.
+        MavenSession session = new MavenSession( null, new DefaultMavenExecutionRequest(),
+                                                 new DefaultMavenExecutionResult(), reactor );
+        session.setProjectDependencyGraph( new ReactorGraph( reactor ) );
+        spy = new MavenDeployer();
+        spy.onEvent( new Event( ExecutionEvent.Type.SessionStarted, session, null ) );
+    }
+
+    @Benchmark
+    public void baseline( Cursor cursor, Blackhole blackhole )
+    {
+        blackhole.consume( cursor.next( events ) );
+    }
+
+    @Benchmark
+    public void onEvent( Cursor cursor )
+        throws Exception
+    {
+        spy.onEvent( cursor.next( events ) );
+    }
+
+    private static final class Event
+        implements ExecutionEvent
+    {
+        private final Type type;
+
+        private final MavenSession session;
+
+        private final MavenProject project;
+
+        Event( Type type, MavenSession session, MavenProject project )
+        {
+            this.type = type;
+            this.session = session;
+            this.project = project;
+        }
+
+        @Override
+        public Type getType()
+        {
+            return type;
+        }
+
+        @Override
+        public MavenSession getSession()
+        {
+            return session;
+        }
+
+        @Override
+        public MavenProject getProject()
+        {
+            return project;
+        }
+
+        @Override
+        public MojoExecution getMojoExecution()
+        {
+            return null;
+        }
+
+        @Override
+        public Exception getException()
+        {
+            return null;
+        }
+    }
+
+    /**
+     * The reactor without any dependencies between the projects.
+     */
+    private static final class ReactorGraph
+        implements ProjectDependencyGraph
+    {
+        private final List<MavenProject> projects;
+
+        ReactorGraph( List<MavenProject> projects )
+        {
+            this.projects = projects;
+        }
+
+        @Override
+        public List<MavenProject> getAllProjects()
+        {
+            return projects;
+        }
+
+        @Override
+        public List<MavenProject> getSortedProjects()
+        {
+            return projects;
+        }
+
+        @Override
+        public List<MavenProject> getDownstreamProjects( MavenProject project, boolean transitive )
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<MavenProject> getUpstreamProjects( MavenProject project, boolean transitive )
+        {
+            return Collections.emptyList();
+        }
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipInputStream;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * A local stand-in for a remote repository. Uploads ({@code PUT}) are read completely and discarded, every download
+ * is answered with {@code 404}, so the deployment of releases behaves like against an empty repository. A bundle
+ * uploaded to {@code .bundle/} is unpacked like a repository manager which supports the bundle mode would do it. An
+ * optional latency is added to every request to simulate the distance to a real repository manager.
+ */
+final class HttpRepositoryServer
+    implements Closeable
+{
+    /**
+     * The path below the URL of the repository bundles are uploaded to.
+     */
+    static final String BUNDLE_PATH = ".bundle/";
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final long latencyMillis;
+
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final AtomicLong bundleEntries = new AtomicLong();
+
+    HttpRepositoryServer( long latencyMillis )
+        throws IOException
+    {
+        this.latencyMillis = latencyMillis;
+        this.server = HttpServer.create( new InetSocketAddress( InetAddress.getLoopbackAddress(), 0 ), 0 );
+        this.executor = Executors.newCachedThreadPool( new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "http-repository" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        server.setExecutor( executor );
+        server.createContext( "/", new HttpHandler()
+        {
+            @Override
+            public void handle( HttpExchange exchange )
+                throws IOException
+            {
+                HttpRepositoryServer.this.handle( exchange );
+            }
+        } );
+        server.start();
+    }
+
+    /**
+     * @return The URL of the repository.
+     */
+    String getUrl()
+    {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/repository";
+    }
+
+    long getReceivedBytes()
+    {
+        return receivedBytes.get();
+    }
+
+    long getRequests()
+    {
+        return requests.get();
+    }
+
+    /**
+     * @return The number of files in all bundles which have been uploaded.
+     */
+    long getBundleEntries()
+    {
+        return bundleEntries.get();
+    }
+
+    private void handle( HttpExchange exchange )
+        throws IOException
+    {
+        try
+        {
+            requests.incrementAndGet();
+            if ( latencyMillis > 0 )
+            {
+                TimeUnit.MILLISECONDS.sleep( latencyMillis );
+            }
+            if ( "PUT".equals( exchange.getRequestMethod() )
+                && exchange.getRequestURI().getPath().contains( "/" + BUNDLE_PATH ) )
+            {
+                receivedBytes.addAndGet( unpack( exchange.getRequestBody() ) );
+                exchange.sendResponseHeaders( 201, -1 );
+            }
+            else if ( "PUT".equals( exchange.getRequestMethod() ) )
+            {
+                receivedBytes.addAndGet( drain( exchange.getRequestBody() ) );
+                exchange.sendResponseHeaders( 201, -1 );
+            }
+            else
+            {
+                drain( exchange.getRequestBody() );
+                exchange.sendResponseHeaders( 404, -1 );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            exchange.sendResponseHeaders( 503, -1 );
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    private long unpack( InputStream in )
+        throws IOException
+    {
+        long total = 0;
+        ZipInputStream zip = new ZipInputStream( in );
+        while ( zip.getNextEntry() != null )
+        {
+            bundleEntries.incrementAndGet();
+            total += drain( zip );
+        }
+        drain( in );
+        return total;
+    }
+
+    private static long drain( InputStream in )
+        throws IOException
+    {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ( ( read = in.read( buffer ) ) != -1 )
+        {
+            total += read;
+        }
+        return total;
+    }
+
+    @Override
+    public void close()
+    {
+        server.stop( 0 );
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.installation.InstallRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Installs the whole synthetic reactor into an empty local repository the way {@code installProjects} does it. One
+ * operation is the installation of the complete reactor.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Fork( 1 )
+@Warmup( iterations = 2 )
+@Measurement( iterations = 5 )
+public class InstallBenchmark
+{
+    /**
+     * The value of {@code deployer.install.threads}.
+     */
+    @Param( { "1", "4" } )
+    public int threads;
+
+    /**
+     * The value of {@code deployer.virtualThreads}, which only makes a difference on Java 21 and later.
+     */
+    @Param( { "false", "true" } )
+    public boolean virtual;
+
+    private File localRepository;
+
+    private RepositorySystemSession session;
+
+    @Setup( Level.Invocation )
+    public void emptyLocalRepository( ReactorState reactor )
+        throws IOException
+    {
+        // The installer skips files which are already there, so every installation starts from scratch.
+        localRepository = new File( reactor.getDirectory(), "local-repo" );
+        FileUtils.deleteDirectory( localRepository );
+        session = Resolver.newSession( localRepository, new TransferMetrics() );
+    }
+
+    @Benchmark
+    public void install( ReactorState reactor, TransferredBytes bytes )
+    {
+        MetadataLocks metadataLocks = new MetadataLocks();
+        ProjectExecutor executor =
+            new ProjectExecutor( "install", threads, null, WorkerThreads.newThreadFactory( "install", virtual ) );
+        ReactorState.check( executor.execute( reactor.getProjects(), metadataLocks.guard( new ProjectTask()
+        {
+            @Override
+            public void execute( MavenProject project )
+                throws Exception
+            {
+                InstallRequest request = new InstallRequest();
+                request.setArtifacts( Resolver.artifacts( project ) );
+                Resolver.system().install( session, request );
+            }
+        } ) ) );
+        bytes.add( reactor.getBytes() );
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.model.Build;
+import org.apache.maven.model.Model;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The removal of the install and deploy goals in {@code sessionStarted}. Every project has the given number of build
+ * plugins with two executions each, one of them is the {@code maven-deploy-plugin} and one the
+ * {@code maven-install-plugin}. The time per operation should grow linearly with the number of projects.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Fork( 1 )
+@Warmup( iterations = 3 )
+@Measurement( iterations = 5 )
+public class LifecycleRewriterBenchmark
+{
+    @Param( { "100", "1000", "10000" } )
+    public int projects;
+
+    @Param( { "20" } )
+    public int plugins;
+
+    private List<MavenProject> reactor;
+
+    /**
+     * The executions of the goals which are removed.
+     */
+    private List<PluginExecution> installExecutions;
+
+    private List<PluginExecution> deployExecutions;
+
+    @Setup( Level.Trial )
+    public void createReactor()
+    {
+        reactor = new ArrayList<>( projects );
+        installExecutions = new ArrayList<>();
+        deployExecutions = new ArrayList<>();
+        for ( int i = 0; i < projects; i++ )
+        {
+            Build build = new Build();
+            for ( int j = 0; j < plugins - 2; j++ )
+            {
+                build.addPlugin( plugin( "org.example.plugins", "plugin-" + j, "goal" ) );
+            }
+            Plugin install = plugin( "org.apache.maven.plugins", "maven-install-plugin", "install" );
+            installExecutions.addAll( install.getExecutions() );
+            build.addPlugin( install );
+            Plugin deploy = plugin( "org.apache.maven.plugins", "maven-deploy-plugin", "deploy" );
+            deployExecutions.addAll( deploy.getExecutions() );
+            build.addPlugin( deploy );
+
+            Model model = new Model();
+            model.setGroupId( SyntheticReactor.GROUP_ID );
+            model.setArtifactId( "project-" + i );
+            model.setVersion( "1.0.0" );
+            model.setBuild( build );
+            reactor.add( new MavenProject( model ) );
+        }
+    }
+
+    @Benchmark
+    public void rewrite()
+    {
+        new LifecycleRewriter().deactivate( "org.apache.maven.plugins", "maven-deploy-plugin", "deploy" )
+                               .deactivate( "org.apache.maven.plugins", "maven-install-plugin", "install" )
+                               .rewrite( reactor );
+
+        // Puts the goals back for the next operation. This is cheaper than creating a new reactor which would
+        // measure the garbage collector instead of the rewriting.
+        restore( deployExecutions, "deploy" );
+        restore( installExecutions, "install" );
+    }
+
+    private static void restore( List<PluginExecution> executions, String goal )
+    {
+        for ( PluginExecution execution : executions )
+        {
+            execution.addGoal( goal );
+        }
+    }
+
+    private static Plugin plugin( String groupId, String artifactId, String goal )
+    {
+        Plugin plugin = new Plugin();
+        plugin.setGroupId( groupId );
+        plugin.setArtifactId( artifactId );
+        for ( String id : new String[] { "default-" + goal, "second-" + goal } )
+        {
+            PluginExecution execution = new PluginExecution();
+            execution.setId( id );
+            execution.addGoal( goal );
+            plugin.addExecution( execution );
+        }
+        return plugin;
+    }
+
+}
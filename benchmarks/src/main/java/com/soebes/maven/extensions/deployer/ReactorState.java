@@ -0,0 +1,111 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * The synthetic reactor a benchmark works on. The size of the reactor is given via the parameters, for example
+ * {@code -p projects=1000 -p attachments=10 -p size=2GB}.
+ */
+@State( Scope.Benchmark )
+public class ReactorState
+{
+    /**
+     * The number of projects of the reactor.
+     */
+    @Param( { "10", "100" } )
+    public int projects;
+
+    /**
+     * The number of attached artifacts of every project.
+     */
+    @Param( { "2" } )
+    public int attachments;
+
+    /**
+     * The size of every jar from {@code 1KB} up to {@code 2GB}.
+     */
+    @Param( { "1KB", "1MB" } )
+    public String size;
+
+    private File directory;
+
+    private SyntheticReactor reactor;
+
+    @Setup( Level.Trial )
+    public void createReactor()
+        throws IOException
+    {
+        directory = Files.createTempDirectory( "deployer-benchmark" ).toFile();
+        reactor = new SyntheticReactor( new File( directory, "reactor" ), projects, attachments,
+                                        SyntheticReactor.parseSize( size ), "1.0.0" );
+    }
+
+    @TearDown( Level.Trial )
+    public void deleteReactor()
+        throws IOException
+    {
+        FileUtils.deleteDirectory( directory );
+    }
+
+    /**
+     * @return A directory for the repositories of a benchmark which is deleted after the trial.
+     */
+    File getDirectory()
+    {
+        return directory;
+    }
+
+    List<MavenProject> getProjects()
+    {
+        return reactor.getProjects();
+    }
+
+    long getBytes()
+    {
+        return reactor.getBytes();
+    }
+
+    /**
+     * Fails the benchmark if not every project could be handled, otherwise the numbers would look too good.
+     */
+    static void check( ExecutionSummary summary )
+    {
+        if ( !summary.isSuccess() )
+        {
+            Throwable cause = summary.getFailed().values().iterator().next();
+            throw new IllegalStateException( summary.getFailed().size() + " projects have failed.", cause );
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.supplier.RepositorySystemSupplier;
+
+/**
+ * Creates the repository system and the sessions which the benchmarks use instead of a complete Maven runtime.
+ */
+final class Resolver
+{
+    private static final RepositorySystem SYSTEM = new RepositorySystemSupplier().get();
+
+    private Resolver()
+    {
+        // intentionally empty.
+    }
+
+    static RepositorySystem system()
+    {
+        return SYSTEM;
+    }
+
+    /**
+     * @return A session with the given local repository which reports its transfers to the given metrics like the
+     *         session of the extension does.
+     */
+    static RepositorySystemSession newSession( File localRepository, TransferMetrics metrics )
+    {
+        DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+        session.setLocalRepositoryManager( SYSTEM.newLocalRepositoryManager( session,
+                                                                            new LocalRepository( localRepository ) ) );
+        return metrics.attach( new DefaultProjectBuildingRequest().setRepositorySession( session ) )
+                      .getRepositorySession();
+    }
+
+    /**
+     * @return The artifacts of the given project in the order the project deployer would use.
+     */
+    static List<Artifact> artifacts( MavenProject project )
+        throws Exception
+    {
+        List<Artifact> result = new ArrayList<>();
+        for ( ArtifactFile file : ArtifactFile.of( project ) )
+        {
+            org.apache.maven.artifact.Artifact artifact = file.getArtifact();
+            result.add( new DefaultArtifact( artifact.getGroupId(), artifact.getArtifactId(), file.getClassifier(),
+                                             file.getExtension(), artifact.getVersion() ).setFile( file.getFile() ) );
+        }
+        return result;
+    }
+
+}
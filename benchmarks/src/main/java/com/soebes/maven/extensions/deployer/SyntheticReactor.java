@@ -0,0 +1,198 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.model.Model;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * A reactor of generated projects: every project has a pom, a main jar and the given number of attached artifacts.
+ * All jars are hard links of one data file, so even a reactor with thousands of 2 GB artifacts only needs the disk
+ * space of a single one while every jar still has its own path (and for example its own entry in the
+ * {@link ChecksumCache}).
+ */
+final class SyntheticReactor
+{
+    static final String GROUP_ID = "com.soebes.maven.extensions.benchmark";
+
+    private final List<MavenProject> projects;
+
+    private final long bytes;
+
+    /**
+     * @param directory The directory the files of the reactor are written to.
+     * @param projects The number of projects.
+     * @param attachments The number of attached artifacts of every project.
+     * @param size The size of every jar.
+     * @param version The version of every project.
+     */
+    SyntheticReactor( File directory, int projects, int attachments, long size, String version )
+        throws IOException
+    {
+        Files.createDirectories( directory.toPath() );
+        File data = new File( directory, "data-" + size + ".jar" );
+        writeData( data, size );
+
+        List<MavenProject> result = new ArrayList<>();
+        long total = 0;
+        for ( int i = 0; i < projects; i++ )
+        {
+            String artifactId = "project-" + i;
+            File pom = new File( directory, artifactId + ".pom" );
+            writePom( pom, artifactId, version );
+
+            Model model = new Model();
+            model.setModelVersion( "4.0.0" );
+            model.setGroupId( GROUP_ID );
+            model.setArtifactId( artifactId );
+            model.setVersion( version );
+            model.setPackaging( "jar" );
+            MavenProject project = new MavenProject( model );
+            project.setFile( pom );
+            project.setArtifact( artifact( artifactId, version, null, link( data, artifactId + ".jar" ) ) );
+            total += pom.length() + data.length();
+            for ( int j = 0; j < attachments; j++ )
+            {
+                String classifier = "attachment-" + j;
+                File file = link( data, artifactId + "-" + classifier + ".jar" );
+                project.addAttachedArtifact( artifact( artifactId, version, classifier, file ) );
+                total += data.length();
+            }
+            result.add( project );
+        }
+        this.projects = Collections.unmodifiableList( result );
+        this.bytes = total;
+    }
+
+    List<MavenProject> getProjects()
+    {
+        return projects;
+    }
+
+    /**
+     * @return The number of bytes of all files of the reactor.
+     */
+    long getBytes()
+    {
+        return bytes;
+    }
+
+    /**
+     * Parses sizes like {@code 1KB}, {@code 64MB} or {@code 2GB}.
+     */
+    static long parseSize( String size )
+    {
+        String value = size.trim().toUpperCase( Locale.ROOT );
+        long factor = 1;
+        if ( value.endsWith( "KB" ) )
+        {
+            factor = 1024L;
+        }
+        else if ( value.endsWith( "MB" ) )
+        {
+            factor = 1024L * 1024;
+        }
+        else if ( value.endsWith( "GB" ) )
+        {
+            factor = 1024L * 1024 * 1024;
+        }
+        if ( factor > 1 )
+        {
+            value = value.substring( 0, value.length() - 2 );
+        }
+        else if ( value.endsWith( "B" ) )
+        {
+            value = value.substring( 0, value.length() - 1 );
+        }
+        return Long.parseLong( value.trim() ) * factor;
+    }
+
+    private static DefaultArtifact artifact( String artifactId, String version, String classifier, File file )
+    {
+        DefaultArtifact artifact = new DefaultArtifact( GROUP_ID, artifactId, version, null, "jar", classifier,
+                                                        new DefaultArtifactHandler( "jar" ) );
+        artifact.setFile( file );
+        return artifact;
+    }
+
+    private static File link( File data, String name )
+        throws IOException
+    {
+        File file = new File( data.getParentFile(), name );
+        Files.deleteIfExists( file.toPath() );
+        try
+        {
+            Files.createLink( file.toPath(), data.toPath() );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            Files.copy( data.toPath(), file.toPath() );
+        }
+        return file;
+    }
+
+    private static void writePom( File pom, String artifactId, String version )
+        throws IOException
+    {
+        String content = "<project>\n  <modelVersion>4.0.0</modelVersion>\n  <groupId>" + GROUP_ID
+            + "</groupId>\n  <artifactId>" + artifactId + "</artifactId>\n  <version>" + version
+            + "</version>\n</project>\n";
+        Files.write( pom.toPath(), content.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * Writes pseudo random bytes, so neither the file system nor the transport can compress the data away.
+     */
+    private static void writeData( File file, long size )
+        throws IOException
+    {
+        if ( file.length() == size )
+        {
+            return;
+        }
+        Random random = new Random( size );
+        byte[] buffer = new byte[1024 * 1024];
+        try ( OutputStream out = Files.newOutputStream( file.toPath() ) )
+        {
+            long remaining = size;
+            while ( remaining > 0 )
+            {
+                random.nextBytes( buffer );
+                int length = (int) Math.min( buffer.length, remaining );
+                out.write( buffer, 0, length );
+                remaining -= length;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.xyz.broken;
+
+public class App {
+
+	public static void main(String[] args) {
+		// Does not compile on purpose.
+		System.out.println("This is App")
+	}
+
+}
@@ -0,0 +1,9 @@
+package com.xyz.other;
+
+public class App {
+
+	public static void main(String[] args) {
+		System.out.println("This is App");
+	}
+
+}
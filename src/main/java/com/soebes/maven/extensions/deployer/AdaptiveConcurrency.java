@@ -0,0 +1,341 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adapts the number of projects which are deployed into a repository at the same time to what the repository can
+ * take (additive increase, multiplicative decrease like TCP). The limit starts at the minimum and grows by one after
+ * as many projects as the limit has succeeded in a row. It is halved (but not below the minimum) if a project fails or
+ * takes much longer per byte than the recent fast projects of a similar size, which means the repository or the
+ * network is saturated. Every size class (a power of four) has its own baseline, so small projects whose duration is
+ * dominated by the latency of the requests are not compared to the throughput of big ones. The baseline follows a
+ * faster project at once and a slower one slowly, so a single fast outlier does not make every later project look
+ * slow. The results of projects which have been started before the last decrease don't decrease it again, so a
+ * single congestion halves the limit only once. The workers of the {@link ProjectExecutor} wait for a permit before
+ * they start a project, so the pool has to have as many workers as the maximum.
+ */
+class AdaptiveConcurrency
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( AdaptiveConcurrency.class );
+
+    /**
+     * A project is slow if its duration per byte is more than this multiple of the baseline of its size class.
+     */
+    static final double TOLERANCE = 2;
+
+    /**
+     * The share of the difference by which a project which is slower than the baseline raises it.
+     */
+    static final double DECAY = 0.1;
+
+    /**
+     * Added to the size of every project, so the sizes within a size class make less of a difference.
+     */
+    static final long OVERHEAD_BYTES = 64 * 1024;
+
+    private final String name;
+
+    private final PoolStatistics statistics;
+
+    private final int minimum;
+
+    private final int maximum;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition permitReleased = lock.newCondition();
+
+    private final List<Change> trajectory = new ArrayList<>();
+
+    private final long start;
+
+    private int limit;
+
+    private int inFlight;
+
+    private int successes;
+
+    private int decreases;
+
+    private long started;
+
+    private long lastDecrease = -1;
+
+    /**
+     * The baseline of the duration per byte by size class, {@code 0} if no project of the class has finished yet.
+     */
+    private final double[] baselines = new double[32];
+
+    /**
+     * @param name The name of the repository.
+     * @param minimum The minimum number of projects in flight.
+     * @param maximum The maximum number of projects in flight.
+     * @param statistics Receives the time the workers wait for a permit or {@code null}.
+     */
+    AdaptiveConcurrency( String name, int minimum, int maximum, PoolStatistics statistics )
+    {
+        this.name = name;
+        this.statistics = statistics;
+        this.maximum = Math.max( 1, maximum );
+        this.minimum = Math.max( 1, Math.min( minimum, this.maximum ) );
+        this.limit = this.minimum;
+        this.start = System.nanoTime();
+        trajectory.add( new Change( 0, limit ) );
+    }
+
+    /**
+     * @return A task which runs the given task only when the limit allows one more project in flight.
+     */
+    ProjectTask guard( final ProjectTask task )
+    {
+        return new ProjectTask()
+        {
+            @Override
+            public void execute( MavenProject project )
+                throws Exception
+            {
+                long sequence = acquire();
+                long projectStart = System.nanoTime();
+                boolean success = false;
+                try
+                {
+                    task.execute( project );
+                    success = true;
+                }
+                finally
+                {
+                    release( sequence, SizeSchedule.size( project ), System.nanoTime() - projectStart, success );
+                }
+            }
+        };
+    }
+
+    /**
+     * @return The sequence number of the started project.
+     */
+    private long acquire()
+        throws InterruptedException
+    {
+        lock.lock();
+        long waitStart = System.nanoTime();
+        boolean waiting = statistics != null && inFlight >= limit;
+        if ( waiting )
+        {
+            statistics.waiting();
+        }
+        try
+        {
+            while ( inFlight >= limit )
+            {
+                permitReleased.await();
+            }
+            inFlight++;
+            return started++;
+        }
+        finally
+        {
+            if ( waiting )
+            {
+                statistics.permitted( System.nanoTime() - waitStart );
+            }
+            lock.unlock();
+        }
+    }
+
+    private void release( long sequence, long size, long nanos, boolean success )
+    {
+        lock.lock();
+        try
+        {
+            inFlight--;
+            double cost = (double) nanos / ( size + OVERHEAD_BYTES );
+            int sizeClass = sizeClass( size );
+            double baseline = baselines[sizeClass];
+            boolean slow = baseline > 0 && cost > TOLERANCE * baseline;
+            if ( success )
+            {
+                baselines[sizeClass] = baseline == 0 ? cost : Math.min( cost, baseline + DECAY * ( cost - baseline ) );
+            }
+            if ( !success || slow )
+            {
+                if ( sequence > lastDecrease )
+                {
+                    decrease( success ? "slow" : "failure" );
+                }
+            }
+            else if ( ++successes >= limit && limit < maximum )
+            {
+                successes = 0;
+                change( limit + 1 );
+            }
+            permitReleased.signalAll();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The size class of the given size: the sizes of a class differ by a factor of four at most.
+     */
+    static int sizeClass( long size )
+    {
+        return ( 63 - Long.numberOfLeadingZeros( size + OVERHEAD_BYTES ) ) / 2;
+    }
+
+    private void decrease( String reason )
+    {
+        successes = 0;
+        lastDecrease = started - 1;
+        int decreased = Math.max( minimum, limit / 2 );
+        if ( decreased < limit )
+        {
+            decreases++;
+            LOGGER.debug( "{}: {} projects in flight after a {} project.", name, decreased, reason );
+            change( decreased );
+        }
+    }
+
+    private void change( int newLimit )
+    {
+        limit = newLimit;
+        trajectory.add( new Change( System.nanoTime() - start, limit ) );
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    int getMinimum()
+    {
+        return minimum;
+    }
+
+    int getMaximum()
+    {
+        return maximum;
+    }
+
+    int getLimit()
+    {
+        lock.lock();
+        try
+        {
+            return limit;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of times the limit has been decreased.
+     */
+    int getDecreases()
+    {
+        lock.lock();
+        try
+        {
+            return decreases;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The highest limit which has been reached.
+     */
+    int getPeak()
+    {
+        int peak = 0;
+        for ( Change change : getTrajectory() )
+        {
+            peak = Math.max( peak, change.getLimit() );
+        }
+        return peak;
+    }
+
+    /**
+     * @return Every change of the limit in the order they happened, starting with the initial limit.
+     */
+    List<Change> getTrajectory()
+    {
+        lock.lock();
+        try
+        {
+            return new ArrayList<>( trajectory );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A new limit and when it has been set.
+     */
+    static final class Change
+    {
+        private final long nanos;
+
+        private final int limit;
+
+        Change( long nanos, int limit )
+        {
+            this.nanos = nanos;
+            this.limit = limit;
+        }
+
+        /**
+         * @return The time since the start of the deployment into the repository.
+         */
+        long getNanos()
+        {
+            return nanos;
+        }
+
+        int getLimit()
+        {
+            return limit;
+        }
+
+        @Override
+        public String toString()
+        {
+            return limit + "@" + TimeUnit.NANOSECONDS.toMillis( nanos ) + "ms";
+        }
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+
+/**
+ * A file of a project which will be installed or deployed together with its coordinates.
+ */
+final class ArtifactFile
+{
+    private final Artifact artifact;
+
+    private final File file;
+
+    private ArtifactFile( Artifact artifact, File file )
+    {
+        this.artifact = artifact;
+        this.file = file;
+    }
+
+    /**
+     * Collects the files of a project in the same way maven-artifact-transfer does it: the pom file, the main
+     * artifact (not for packaging {@code pom}) and all attached artifacts.
+     */
+    static List<ArtifactFile> of( MavenProject project )
+        throws NoFileAssignedException
+    {
+        Artifact artifact = project.getArtifact();
+        List<ArtifactFile> result = new ArrayList<ArtifactFile>();
+        if ( "pom".equals( project.getPackaging() ) )
+        {
+            result.add( new ArtifactFile( artifact, project.getFile() ) );
+        }
+        else
+        {
+            Artifact pom = new DefaultArtifact( artifact.getGroupId(), artifact.getArtifactId(),
+                                                artifact.getBaseVersion(), null, "pom", null,
+                                                new DefaultArtifactHandler( "pom" ) );
+            result.add( new ArtifactFile( pom, project.getFile() ) );
+
+            File file = artifact.getFile();
+            if ( file == null || !file.isFile() )
+            {
+                throw new NoFileAssignedException( "The packaging for this project did not assign a file to the build "
+                    + "artifact" );
+            }
+            result.add( new ArtifactFile( artifact, file ) );
+        }
+        for ( Artifact attached : project.getAttachedArtifacts() )
+        {
+            if ( attached.getFile() == null )
+            {
+                throw new NoFileAssignedException( "The attached artifact " + attached.getId() + " has no file" );
+            }
+            result.add( new ArtifactFile( attached, attached.getFile() ) );
+        }
+        return result;
+    }
+
+    Artifact getArtifact()
+    {
+        return artifact;
+    }
+
+    File getFile()
+    {
+        return file;
+    }
+
+    /**
+     * @return A copy of the artifact with the file, without the metadata of the project, so it is deployed on its own.
+     */
+    Artifact toArtifact()
+    {
+        Artifact copy = ArtifactUtils.copyArtifact( artifact );
+        copy.setFile( file );
+        return copy;
+    }
+
+    String getClassifier()
+    {
+        return artifact.getClassifier();
+    }
+
+    String getExtension()
+    {
+        return artifact.getArtifactHandler().getExtension();
+    }
+
+    /**
+     * @param version The version to be used in the file name (the timestamped one in case of a deployed SNAPSHOT).
+     * @return The path of the file in a repository with the default layout.
+     */
+    String getPath( String version )
+    {
+        StringBuilder path = new StringBuilder( 128 );
+        path.append( artifact.getGroupId().replace( '.', '/' ) ).append( '/' );
+        path.append( artifact.getArtifactId() ).append( '/' );
+        path.append( artifact.getBaseVersion() ).append( '/' );
+        path.append( artifact.getArtifactId() ).append( '-' ).append( version );
+        if ( getClassifier() != null && !getClassifier().isEmpty() )
+        {
+            path.append( '-' ).append( getClassifier() );
+        }
+        path.append( '.' ).append( getExtension() );
+        return path.toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return artifact.getGroupId() + ':' + artifact.getArtifactId() + ':' + getExtension()
+            + ( getClassifier() != null && !getClassifier().isEmpty() ? ':' + getClassifier() : "" ) + ':'
+            + artifact.getBaseVersion();
+    }
+
+}
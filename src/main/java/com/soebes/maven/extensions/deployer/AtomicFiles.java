@@ -0,0 +1,66 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Helpers to write a file under a temporary name next to its final location and rename it afterwards, so nobody
+ * ever sees a partially written file.
+ */
+final class AtomicFiles
+{
+    private AtomicFiles()
+    {
+        // no one should create an instance of this class.
+    }
+
+    /**
+     * @return A hidden file in the same directory as the target. The name is unique per thread, so parallel workers
+     *         never share a temporary file.
+     */
+    static File temporaryFile( File target )
+    {
+        return new File( target.getParentFile(),
+                         "." + target.getName() + '.' + Thread.currentThread().getId() + ".tmp" );
+    }
+
+    /**
+     * Renames the source to the target (replacing an existing target), atomically if the file system supports it.
+     */
+    static void move( File source, File target )
+        throws IOException
+    {
+        try
+        {
+            Files.move( source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING );
+        }
+        catch ( AtomicMoveNotSupportedException e )
+        {
+            Files.move( source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING );
+        }
+    }
+
+}
@@ -0,0 +1,210 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the bandwidth of the uploads with a token bucket. The bucket is refilled with the configured bytes per second
+ * and holds at most a tenth of a second of them, so an idle limiter allows only a short burst. A transfer reserves
+ * the tokens for every chunk it is about to send and waits until the bucket would have had them. The reservations are
+ * made under a fair lock in the order of arrival, so parallel transfers take turns chunk by chunk and share the
+ * bandwidth evenly. A limiter for a single repository can have a parent limiter for all repositories, a chunk then
+ * waits for both of them.
+ */
+final class BandwidthLimiter
+{
+    /**
+     * The size in which the streams of the limiter hand the data on.
+     */
+    static final int CHUNK = 64 * 1024;
+
+    private final String name;
+
+    private final long bytesPerSecond;
+
+    private final BandwidthLimiter parent;
+
+    private final ReentrantLock lock = new ReentrantLock( true );
+
+    private final double capacity;
+
+    private double tokens;
+
+    private long refilled;
+
+    private long waited;
+
+    /**
+     * @param name The name for the log, for example the repository.
+     * @param bytesPerSecond The maximum bandwidth.
+     * @param parent The limiter which is shared with other repositories or {@code null}.
+     */
+    BandwidthLimiter( String name, long bytesPerSecond, BandwidthLimiter parent )
+    {
+        this.name = name;
+        this.bytesPerSecond = bytesPerSecond;
+        this.parent = parent;
+        this.capacity = Math.max( 1, bytesPerSecond / 10.0 );
+        this.tokens = capacity;
+        this.refilled = System.nanoTime();
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    long getBytesPerSecond()
+    {
+        return bytesPerSecond;
+    }
+
+    /**
+     * @return The limiter which is shared with other repositories or {@code null}.
+     */
+    BandwidthLimiter getParent()
+    {
+        return parent;
+    }
+
+    /**
+     * @return The time all transfers together have been held back by this limiter (without the parent).
+     */
+    long getWaitNanos()
+    {
+        lock.lock();
+        try
+        {
+            return waited;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until the given number of bytes may be sent.
+     */
+    void acquire( long bytes )
+        throws InterruptedIOException
+    {
+        long waitNanos = reserve( bytes );
+        if ( parent != null )
+        {
+            waitNanos = Math.max( waitNanos, parent.reserve( bytes ) );
+        }
+        if ( waitNanos <= 0 )
+        {
+            return;
+        }
+        try
+        {
+            TimeUnit.NANOSECONDS.sleep( waitNanos );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for the bandwidth of " + name );
+        }
+    }
+
+    /**
+     * Takes the tokens for the given number of bytes. If there are not enough, the bucket goes into debt which the
+     * following reservations have to wait for as well.
+     *
+     * @return The time the caller has to wait before sending the bytes.
+     */
+    private long reserve( long bytes )
+    {
+        lock.lock();
+        try
+        {
+            long now = System.nanoTime();
+            tokens = Math.min( capacity, tokens + ( now - refilled ) * bytesPerSecond / 1e9 );
+            refilled = now;
+            tokens -= bytes;
+            long waitNanos = tokens >= 0 ? 0 : (long) ( -tokens * 1e9 / bytesPerSecond );
+            waited += waitNanos;
+            return waitNanos;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return A stream which hands the data on to the given stream not faster than the limiter allows.
+     */
+    OutputStream limit( OutputStream out )
+    {
+        return new FilterOutputStream( out )
+        {
+            @Override
+            public void write( int b )
+                throws IOException
+            {
+                acquire( 1 );
+                out.write( b );
+            }
+
+            @Override
+            public void write( byte[] b, int off, int len )
+                throws IOException
+            {
+                for ( int written = 0; written < len; written += CHUNK )
+                {
+                    int chunk = Math.min( CHUNK, len - written );
+                    acquire( chunk );
+                    out.write( b, off + written, chunk );
+                }
+            }
+        };
+    }
+
+    /**
+     * Copies the given stream not faster than the limiter allows.
+     *
+     * @return The number of bytes copied.
+     */
+    long copy( InputStream in, OutputStream out )
+        throws IOException
+    {
+        byte[] buffer = new byte[CHUNK];
+        long total = 0;
+        int read;
+        while ( ( read = in.read( buffer ) ) != -1 )
+        {
+            acquire( read );
+            out.write( buffer, 0, read );
+            total += read;
+        }
+        return total;
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deploys all projects of a repository as a single archive instead of uploading every file on its own. The archive
+ * contains the files in the default layout including the checksums and the merged metadata, which comes last. A
+ * repository on the local file system ({@code file://}) gets the archive unpacked in that order. A HTTP repository
+ * only takes a bundle if an upload URL has been configured explicitly (a repository manager which unpacks such
+ * uploads): the archive is uploaded with a single {@code PUT} to {@code <bundle url>/<name>.zip}. A plain HTTP
+ * repository would store the archive as an opaque file and none of the artifacts would show up.
+ */
+class BundleDeployer
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( BundleDeployer.class );
+
+    private final ChecksumCache checksumCache;
+
+    private final Date startTime;
+
+    private final TransferMetrics metrics;
+
+    /**
+     * @param checksumCache The digests of the artifacts.
+     * @param startTime The start of the session which is used for the timestamp of deployed SNAPSHOTs.
+     * @param metrics Receives the upload of the bundle.
+     */
+    BundleDeployer( ChecksumCache checksumCache, Date startTime, TransferMetrics metrics )
+    {
+        this.checksumCache = checksumCache;
+        this.startTime = startTime;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param bundleUrl The URL bundles for the repository are uploaded to or {@code null}.
+     * @return {@code true} if a bundle can be deployed into the given repository.
+     */
+    static boolean canDeploy( ArtifactRepository repository, String bundleUrl )
+    {
+        return FileRepositoryDeployer.basedir( repository ) != null
+            || ( HttpRepository.isHttp( repository ) && bundleUrl != null );
+    }
+
+    /**
+     * @return The name of the archive of the given repository. Repositories with the same id but different URLs are
+     *         deployed at the same time, so the name contains a hash of the URL as well.
+     */
+    static String fileName( ArtifactRepository repository )
+    {
+        byte[] key = DistributionRepositories.key( repository ).getBytes( StandardCharsets.UTF_8 );
+        return repository.getId() + '-' + ChecksumCalculator.calculate( key ).getSha1().substring( 0, 8 ) + ".zip";
+    }
+
+    /**
+     * Deploys the given projects as one bundle. Either all projects have been deployed or none of them is visible in
+     * the repository (for a {@code file://} repository the artifacts might have been written, but the metadata which
+     * makes them visible is only written if all of them are there).
+     *
+     * @param workDirectory The directory the archive is created in.
+     * @param bundleUrl The URL the bundle for a HTTP repository is uploaded to. Not used for a {@code file://}
+     *            repository.
+     * @param limiter Limits the bandwidth of the upload or {@code null}.
+     * @param retryPolicy Retries the failed downloads of the metadata and the failed upload.
+     * @param hedging Hedges the upload or {@code null}.
+     */
+    void deploy( List<MavenProject> projects, ArtifactRepository repository, File workDirectory, String bundleUrl,
+                 BandwidthLimiter limiter, RetryPolicy retryPolicy, Hedging hedging )
+        throws IOException, NoFileAssignedException
+    {
+        String repositoryName = DistributionRepositories.key( repository );
+        File basedir = FileRepositoryDeployer.basedir( repository );
+        if ( basedir == null && bundleUrl == null )
+        {
+            throw new IOException( repositoryName + " can't take a bundle without an upload URL ("
+                + DeployerConfiguration.DEPLOY_BUNDLE_URL + '.' + repository.getId() + ")." );
+        }
+        // The metadata is read from the repository itself.
+        ResilientTarget remote =
+            new ResilientTarget( basedir != null ? new DirectoryTarget( basedir, limiter )
+                            : new HttpRepository( repository, limiter ), retryPolicy, hedging );
+
+        long start = System.nanoTime();
+        File bundle = new File( workDirectory, fileName( repository ) );
+        int entries;
+        // The single files are not part of the report, only the bundle itself.
+        FileRepositoryDeployer writer = new FileRepositoryDeployer( checksumCache, startTime, new TransferMetrics() );
+        try ( BundleTarget target = new BundleTarget( bundle, remote ) )
+        {
+            MetadataBatch batch = new MetadataBatch( target, repositoryName );
+            for ( MavenProject project : projects )
+            {
+                writer.deploy( project, batch );
+            }
+            writer.commit( batch );
+            entries = target.getEntries();
+        }
+
+        String path = bundle.getName();
+        int retries = 0;
+        boolean hedged = false;
+        if ( basedir != null )
+        {
+            unpack( bundle, (DirectoryTarget) remote.getTarget() );
+        }
+        else
+        {
+            HttpRepository http =
+                new HttpRepository( bundleUrl, repository.getAuthentication(), repository.getProxy(), limiter );
+            ResilientTarget upload = new ResilientTarget( http, retryPolicy, hedging );
+            upload.write( path, bundle );
+            retries = upload.getRetries( path );
+            hedged = upload.isHedged( path );
+        }
+        long nanos = System.nanoTime() - start;
+        metrics.record( new TransferRecord( TransferMetrics.DEPLOY, "bundle:" + bundle.getName(), repositoryName,
+                                            bundle.length(), nanos, retries, hedged, true ) );
+        LOGGER.info( "Uploaded a bundle of {} files ({} bytes) of {} projects to {} in {} ms.", entries,
+                     bundle.length(), projects.size(), repositoryName, TimeUnit.NANOSECONDS.toMillis( nanos ) );
+    }
+
+    /**
+     * Unpacks the archive in the order of its entries, so the metadata is written last.
+     */
+    private void unpack( File bundle, DirectoryTarget target )
+        throws IOException
+    {
+        try ( ZipFile zip = new ZipFile( bundle ) )
+        {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while ( entries.hasMoreElements() )
+            {
+                ZipEntry entry = entries.nextElement();
+                if ( entry.getName().startsWith( "/" ) || entry.getName().contains( ".." ) )
+                {
+                    throw new IOException( "Invalid entry " + entry.getName() + " in " + bundle );
+                }
+                try ( InputStream in = zip.getInputStream( entry ) )
+                {
+                    target.write( entry.getName(), in );
+                }
+            }
+        }
+    }
+
+}
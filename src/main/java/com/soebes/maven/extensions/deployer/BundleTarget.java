@@ -0,0 +1,103 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a repository in the default layout into a zip file. The files are added in the order they are written, the
+ * {@link MetadataBatch} comes last, so whoever unpacks the archive in order publishes all metadata after all
+ * artifacts. Existing files (the metadata of earlier deployments) are read from the repository the bundle is meant
+ * for.
+ */
+class BundleTarget
+    implements RepositoryTarget, Closeable
+{
+    private final RepositoryTarget repository;
+
+    private final ZipOutputStream zip;
+
+    private int entries;
+
+    /**
+     * @param bundle The zip file to create.
+     * @param repository The repository the bundle is deployed to.
+     */
+    BundleTarget( File bundle, RepositoryTarget repository )
+        throws IOException
+    {
+        this.repository = repository;
+        Files.createDirectories( bundle.getAbsoluteFile().getParentFile().toPath() );
+        OutputStream out = Files.newOutputStream( bundle.toPath() );
+        this.zip = new ZipOutputStream( out );
+        // Most of the content are jars which are compressed already.
+        this.zip.setLevel( Deflater.BEST_SPEED );
+    }
+
+    @Override
+    public byte[] read( String path )
+        throws IOException
+    {
+        return repository.read( path );
+    }
+
+    @Override
+    public synchronized void write( String path, File source )
+        throws IOException
+    {
+        zip.putNextEntry( new ZipEntry( path ) );
+        Files.copy( source.toPath(), zip );
+        zip.closeEntry();
+        entries++;
+    }
+
+    @Override
+    public synchronized void write( String path, byte[] content )
+        throws IOException
+    {
+        zip.putNextEntry( new ZipEntry( path ) );
+        zip.write( content );
+        zip.closeEntry();
+        entries++;
+    }
+
+    /**
+     * @return The number of files in the bundle.
+     */
+    synchronized int getEntries()
+    {
+        return entries;
+    }
+
+    @Override
+    public synchronized void close()
+        throws IOException
+    {
+        zip.close();
+    }
+
+}
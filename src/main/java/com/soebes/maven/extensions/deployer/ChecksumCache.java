@@ -0,0 +1,112 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps the digests of the artifact files for the whole session, so the code of the extension which needs a checksum
+ * (the staging area, the fast path, the bundle, the comparison with the repository and the journal) reads every file
+ * only once. The install and the deploy via the transfer stack of Maven calculate their checksums themselves. An entry
+ * is only used as long as the size and the modification time of the file have not changed.
+ */
+class ChecksumCache
+{
+    private final ConcurrentMap<File, Entry> entries = new ConcurrentHashMap<File, Entry>();
+
+    /**
+     * @return The digests of the given file which are calculated if they are not known yet.
+     */
+    Checksums get( File file )
+        throws IOException
+    {
+        File key = file.getAbsoluteFile();
+        Entry entry = entries.get( key );
+        if ( entry != null && entry.checksums != null && entry.matches( key ) )
+        {
+            return entry.checksums;
+        }
+        Checksums checksums = ChecksumCalculator.calculate( key );
+        put( key, checksums );
+        return checksums;
+    }
+
+    /**
+     * @return The SHA-1 of the given file. Only the SHA-1 is calculated if the digests are not known yet.
+     */
+    String getSha1( File file )
+        throws IOException
+    {
+        File key = file.getAbsoluteFile();
+        Entry entry = entries.get( key );
+        if ( entry != null && entry.matches( key ) )
+        {
+            return entry.sha1;
+        }
+        String sha1 = ChecksumCalculator.sha1( key );
+        entries.putIfAbsent( key, new Entry( key, null, sha1 ) );
+        return sha1;
+    }
+
+    /**
+     * Remembers digests which have been calculated elsewhere, for example while copying the file.
+     */
+    void put( File file, Checksums checksums )
+    {
+        File key = file.getAbsoluteFile();
+        entries.put( key, new Entry( key, checksums, checksums.getSha1() ) );
+    }
+
+    void clear()
+    {
+        entries.clear();
+    }
+
+    private static final class Entry
+    {
+        private final long length;
+
+        private final long lastModified;
+
+        /**
+         * All digests or {@code null} if only the SHA-1 is known.
+         */
+        private final Checksums checksums;
+
+        private final String sha1;
+
+        Entry( File file, Checksums checksums, String sha1 )
+        {
+            this.length = file.length();
+            this.lastModified = file.lastModified();
+            this.checksums = checksums;
+            this.sha1 = sha1;
+        }
+
+        boolean matches( File file )
+        {
+            return file.length() == length && file.lastModified() == lastModified;
+        }
+    }
+
+}
@@ -0,0 +1,161 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Calculates the MD5, SHA-1, SHA-256 and SHA-512 digests of a file while reading the file only once. The same pass
+ * can be used to copy the file, so the bytes of an artifact are read exactly one time.
+ */
+final class ChecksumCalculator
+{
+    private static final int BUFFER_SIZE = 1024 * 1024;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private ChecksumCalculator()
+    {
+        // no one should create an instance of this class.
+    }
+
+    static Checksums calculate( File file )
+        throws IOException
+    {
+        return copy( file, null );
+    }
+
+    /**
+     * Calculates only the SHA-1 of a file, for example for the journal of a deployment which needs no other digest.
+     */
+    static String sha1( File file )
+        throws IOException
+    {
+        MessageDigest sha1 = digest( "SHA-1" );
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap( bytes );
+        try ( FileChannel in = FileChannel.open( file.toPath(), StandardOpenOption.READ ) )
+        {
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                sha1.update( bytes, 0, read );
+                buffer.clear();
+            }
+        }
+        return hex( sha1.digest() );
+    }
+
+    /**
+     * Calculates the digests of content which is held in memory like the metadata files.
+     */
+    static Checksums calculate( byte[] content )
+    {
+        MessageDigest md5 = digest( "MD5" );
+        MessageDigest sha1 = digest( "SHA-1" );
+        MessageDigest sha256 = digest( "SHA-256" );
+        MessageDigest sha512 = digest( "SHA-512" );
+        return new Checksums( hex( md5.digest( content ) ), hex( sha1.digest( content ) ),
+                              hex( sha256.digest( content ) ), hex( sha512.digest( content ) ), content.length );
+    }
+
+    /**
+     * Copies the source into the target and calculates the digests of the copied bytes.
+     * 
+     * @param source The file to read.
+     * @param target The file to write or {@code null} if the digests should only be calculated.
+     */
+    static Checksums copy( File source, File target )
+        throws IOException
+    {
+        MessageDigest md5 = digest( "MD5" );
+        MessageDigest sha1 = digest( "SHA-1" );
+        MessageDigest sha256 = digest( "SHA-256" );
+        MessageDigest sha512 = digest( "SHA-512" );
+
+        byte[] bytes = new byte[BUFFER_SIZE];
+        ByteBuffer buffer = ByteBuffer.wrap( bytes );
+        long size = 0;
+        try ( FileChannel in = FileChannel.open( source.toPath(), StandardOpenOption.READ );
+                        FileChannel out = target == null ? null : FileChannel.open( target.toPath(),
+                                                                                     StandardOpenOption.CREATE,
+                                                                                     StandardOpenOption.WRITE,
+                                                                                     StandardOpenOption.TRUNCATE_EXISTING ) )
+        {
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                if ( read == 0 )
+                {
+                    continue;
+                }
+                md5.update( bytes, 0, read );
+                sha1.update( bytes, 0, read );
+                sha256.update( bytes, 0, read );
+                sha512.update( bytes, 0, read );
+                size += read;
+
+                if ( out != null )
+                {
+                    buffer.flip();
+                    while ( buffer.hasRemaining() )
+                    {
+                        out.write( buffer );
+                    }
+                }
+                buffer.clear();
+            }
+        }
+
+        return new Checksums( hex( md5.digest() ), hex( sha1.digest() ), hex( sha256.digest() ),
+                              hex( sha512.digest() ), size );
+    }
+
+    static String hex( byte[] bytes )
+    {
+        char[] result = new char[bytes.length * 2];
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            result[i * 2] = HEX[( bytes[i] >> 4 ) & 0x0f];
+            result[i * 2 + 1] = HEX[bytes[i] & 0x0f];
+        }
+        return new String( result );
+    }
+
+    private static MessageDigest digest( String algorithm )
+    {
+        try
+        {
+            return MessageDigest.getInstance( algorithm );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            // Every Java platform has to support these algorithms.
+            throw new IllegalStateException( algorithm + " is not supported.", e );
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The digests of a single file as lower case hex strings.
+ */
+final class Checksums
+{
+    private final String md5;
+
+    private final String sha1;
+
+    private final String sha256;
+
+    private final String sha512;
+
+    private final long size;
+
+    Checksums( String md5, String sha1, String sha256, String sha512, long size )
+    {
+        this.md5 = md5;
+        this.sha1 = sha1;
+        this.sha256 = sha256;
+        this.sha512 = sha512;
+        this.size = size;
+    }
+
+    String getMd5()
+    {
+        return md5;
+    }
+
+    String getSha1()
+    {
+        return sha1;
+    }
+
+    String getSha256()
+    {
+        return sha256;
+    }
+
+    String getSha512()
+    {
+        return sha512;
+    }
+
+    /**
+     * @return The number of bytes the digests have been calculated of.
+     */
+    long getSize()
+    {
+        return size;
+    }
+
+    /**
+     * @param algorithm The name of the algorithm as used for the extension of the checksum files ({@code md5},
+     *            {@code sha1}, {@code sha256} or {@code sha512}).
+     * @return The digest or {@code null} if the algorithm is not known.
+     */
+    String get( String algorithm )
+    {
+        if ( "md5".equals( algorithm ) )
+        {
+            return md5;
+        }
+        else if ( "sha1".equals( algorithm ) )
+        {
+            return sha1;
+        }
+        else if ( "sha256".equals( algorithm ) )
+        {
+            return sha256;
+        }
+        else if ( "sha512".equals( algorithm ) )
+        {
+            return sha512;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "sha1:" + sha1;
+    }
+
+}
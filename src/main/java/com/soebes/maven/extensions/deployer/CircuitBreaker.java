@@ -0,0 +1,249 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops deploying into a repository which seems to be down instead of waiting for every single project to time out.
+ * After a number of projects have failed in a row the breaker opens and the following projects fail immediately
+ * without any transfer. Once the breaker has been open for a while a single project is let through as a probe (half
+ * open): if it succeeds the breaker closes again, otherwise it stays open for another while. A project which
+ * succeeds while the breaker is closed resets the count of failures, the projects which were still running when it
+ * opened do not close it. Only the failures of the repository count: a project which has no file or whose files are
+ * missing fails on any repository.
+ */
+class CircuitBreaker
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( CircuitBreaker.class );
+
+    enum State
+    {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+
+    private final int threshold;
+
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+
+    private int failures;
+
+    private long openedAt;
+
+    private int opened;
+
+    private int probes;
+
+    private int shortCircuited;
+
+    /**
+     * @param name The name of the repository.
+     * @param threshold The number of failures in a row which open the breaker.
+     * @param openMillis How long the breaker stays open before a probe is let through.
+     */
+    CircuitBreaker( String name, int threshold, long openMillis )
+    {
+        this.name = name;
+        this.threshold = Math.max( 1, threshold );
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos( openMillis );
+    }
+
+    /**
+     * @return A task which runs the given task only if the breaker lets it through, otherwise it fails with an
+     *         {@link OpenException}.
+     */
+    ProjectTask guard( final ProjectTask task )
+    {
+        return new ProjectTask()
+        {
+            @Override
+            public void execute( MavenProject project )
+                throws Exception
+            {
+                boolean probe = acquire( project );
+                try
+                {
+                    task.execute( project );
+                }
+                catch ( Exception e )
+                {
+                    if ( isRepositoryFailure( project, e ) )
+                    {
+                        failed( probe );
+                    }
+                    else
+                    {
+                        skipped( probe );
+                    }
+                    throw e;
+                }
+                succeeded( probe );
+            }
+        };
+    }
+
+    /**
+     * @return {@code true} if the project is the probe of a half open breaker.
+     */
+    private synchronized boolean acquire( MavenProject project )
+        throws OpenException
+    {
+        if ( state == State.OPEN && System.nanoTime() - openedAt >= openNanos )
+        {
+            state = State.HALF_OPEN;
+            probes++;
+            LOGGER.info( "{}: trying {} to see whether the repository is available again.", name, project.getId() );
+            return true;
+        }
+        if ( state != State.CLOSED )
+        {
+            shortCircuited++;
+            throw new OpenException( "Skipped because " + name + " has failed " + threshold
+                + " times in a row (circuit breaker open)." );
+        }
+        return false;
+    }
+
+    private synchronized void succeeded( boolean probe )
+    {
+        if ( probe )
+        {
+            LOGGER.info( "{} is available again.", name );
+            state = State.CLOSED;
+        }
+        if ( state == State.CLOSED )
+        {
+            failures = 0;
+        }
+    }
+
+    /**
+     * A probe which has failed without reaching the repository tells nothing about it, so the next project is the
+     * probe.
+     */
+    private synchronized void skipped( boolean probe )
+    {
+        if ( probe )
+        {
+            state = State.OPEN;
+        }
+    }
+
+    private synchronized void failed( boolean probe )
+    {
+        failures++;
+        if ( probe || ( state == State.CLOSED && failures >= threshold ) )
+        {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            opened++;
+            LOGGER.error( "{} has failed {} times in a row, the next projects are skipped for {} ms.", name,
+                          failures, TimeUnit.NANOSECONDS.toMillis( openNanos ) );
+        }
+    }
+
+    /**
+     * @return {@code false} if the project would have failed on any repository: it has no file or one of its files is
+     *         missing.
+     */
+    static boolean isRepositoryFailure( MavenProject project, Throwable failure )
+    {
+        for ( Throwable cause = failure; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof NoFileAssignedException )
+            {
+                return false;
+            }
+        }
+        try
+        {
+            for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+            {
+                if ( artifactFile.getFile() == null || !artifactFile.getFile().isFile() )
+                {
+                    return false;
+                }
+            }
+        }
+        catch ( NoFileAssignedException e )
+        {
+            return false;
+        }
+        return true;
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    synchronized State getState()
+    {
+        return state;
+    }
+
+    /**
+     * @return How often the breaker has opened.
+     */
+    synchronized int getOpened()
+    {
+        return opened;
+    }
+
+    /**
+     * @return The number of projects which have been let through while the breaker was open.
+     */
+    synchronized int getProbes()
+    {
+        return probes;
+    }
+
+    /**
+     * @return The number of projects which have been skipped because the breaker was open.
+     */
+    synchronized int getShortCircuited()
+    {
+        return shortCircuited;
+    }
+
+    /**
+     * A project has not been deployed because the breaker of its repository was open.
+     */
+    static final class OpenException
+        extends MavenDeployerException
+    {
+        private static final long serialVersionUID = 1L;
+
+        OpenException( String message )
+        {
+            super( message );
+        }
+    }
+
+}
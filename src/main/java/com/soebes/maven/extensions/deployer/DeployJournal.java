@@ -0,0 +1,351 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A journal of the deployment on disk which survives a crashed or killed build. Before the files of a project are
+ * transferred, every file it consists of is recorded as planned (with its coordinates and its SHA-1), after the project
+ * has arrived completely in the repository it is recorded as completed. Every record is a line of tab separated fields
+ * which is written immediately, so a line which has not been written completely is the only damage a killed build can
+ * do. The records are forced to the disk at most once per second and when the journal is closed: a crash of the
+ * machine may lose the records of the last second, whose projects are deployed once more by a resumed deployment.
+ *
+ * <pre>
+ * session   &lt;session&gt;
+ * planned   &lt;session&gt; &lt;repository&gt; &lt;project&gt; &lt;coordinates&gt; &lt;sha1&gt;
+ * completed &lt;session&gt; &lt;repository&gt; &lt;project&gt;
+ * </pre>
+ *
+ * A resumed deployment ({@code -Ddeployer.resume=true}) keeps the records of the previous sessions and skips every
+ * project which has been completed in one of them with exactly the same files. A project which has been planned but
+ * not completed has been interrupted and may have been transferred partially.
+ */
+class DeployJournal
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( DeployJournal.class );
+
+    static final String FILE_NAME = "deployer-journal.txt";
+
+    private static final String HEADER = "# The journal of the maven-deployer-extension.";
+
+    private static final String SESSION = "session";
+
+    private static final String PLANNED = "planned";
+
+    private static final String COMPLETED = "completed";
+
+    /**
+     * The records of the previous sessions.
+     */
+    private final List<String> lines;
+
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos( 1 );
+
+    /**
+     * The planned files by repository and project and by the session they have been planned in.
+     */
+    private final Map<String, Map<String, Map<String, String>>> planned = new HashMap<>();
+
+    /**
+     * The completed projects by session, repository and project.
+     */
+    private final Set<String> completed = new HashSet<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long forced;
+
+    private File file;
+
+    private String session;
+
+    private FileOutputStream out;
+
+    private DeployJournal( List<String> lines )
+    {
+        this.lines = lines;
+        for ( String line : lines )
+        {
+            String[] fields = line.split( "\t", -1 );
+            if ( PLANNED.equals( fields[0] ) && fields.length == 6 )
+            {
+                String project = fields[2] + '\t' + fields[3];
+                Map<String, Map<String, String>> sessions = planned.get( project );
+                if ( sessions == null )
+                {
+                    sessions = new LinkedHashMap<>();
+                    planned.put( project, sessions );
+                }
+                Map<String, String> files = sessions.get( fields[1] );
+                if ( files == null )
+                {
+                    files = new LinkedHashMap<>();
+                    sessions.put( fields[1], files );
+                }
+                files.put( fields[4], fields[5] );
+            }
+            else if ( COMPLETED.equals( fields[0] ) && fields.length == 4 )
+            {
+                completed.add( key( fields[1], fields[2], fields[3] ) );
+            }
+        }
+    }
+
+    /**
+     * @return A journal without any previous sessions.
+     */
+    static DeployJournal empty()
+    {
+        return new DeployJournal( Collections.<String>emptyList() );
+    }
+
+    /**
+     * Reads the records of the given journal. A line which has not been terminated (the crash happened while it was
+     * written) is ignored, so is a journal which does not exist or can't be read.
+     */
+    static DeployJournal read( File file )
+    {
+        if ( !file.isFile() )
+        {
+            return empty();
+        }
+        try
+        {
+            String content = new String( Files.readAllBytes( file.toPath() ), StandardCharsets.UTF_8 );
+            List<String> lines = new ArrayList<>();
+            int start = 0;
+            for ( int end = content.indexOf( '\n' ); end >= 0; end = content.indexOf( '\n', start ) )
+            {
+                String line = content.substring( start, end );
+                if ( line.startsWith( SESSION + '\t' ) || line.startsWith( PLANNED + '\t' )
+                    || line.startsWith( COMPLETED + '\t' ) )
+                {
+                    lines.add( line );
+                }
+                start = end + 1;
+            }
+            return new DeployJournal( lines );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Could not read the deploy journal {}: {}", file, e.getMessage() );
+            return empty();
+        }
+    }
+
+    /**
+     * @return The files of the given project by their coordinates with their SHA-1 as they are recorded in the
+     *         journal.
+     * @throws NoFileAssignedException If the project or one of its attached artifacts has no file.
+     */
+    static Map<String, String> files( MavenProject project, ChecksumCache checksumCache )
+        throws IOException, NoFileAssignedException
+    {
+        Map<String, String> files = new LinkedHashMap<>();
+        for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+        {
+            files.put( artifactFile.toString(), checksumCache.getSha1( artifactFile.getFile() ) );
+        }
+        return files;
+    }
+
+    /**
+     * Starts a new session in the given file. The file is rewritten with the records of the previous sessions this
+     * journal has been read with and the new session, every further record is appended.
+     */
+    void begin( File journalFile, String sessionId )
+        throws IOException
+    {
+        Files.createDirectories( journalFile.getAbsoluteFile().getParentFile().toPath() );
+        StringBuilder content = new StringBuilder( HEADER ).append( '\n' );
+        for ( String line : lines )
+        {
+            content.append( line ).append( '\n' );
+        }
+        content.append( SESSION ).append( '\t' ).append( sessionId ).append( '\n' );
+
+        File temporary = AtomicFiles.temporaryFile( journalFile );
+        try ( FileOutputStream stream = new FileOutputStream( temporary ) )
+        {
+            stream.write( content.toString().getBytes( StandardCharsets.UTF_8 ) );
+            stream.getChannel().force( false );
+        }
+        AtomicFiles.move( temporary, journalFile );
+        this.file = journalFile;
+        this.session = sessionId;
+        this.out = new FileOutputStream( journalFile, true );
+    }
+
+    /**
+     * @return The previous session in which the given project has been completed in the given repository with
+     *         exactly the given files or {@code null} if there is none.
+     */
+    String findCompleted( String repository, MavenProject project, Map<String, String> files )
+    {
+        return find( repository, project, files, true );
+    }
+
+    /**
+     * @return The previous session in which the given project has been planned for the given repository with exactly
+     *         the given files but not completed or {@code null} if there is none. Some of its files may have arrived.
+     */
+    String findInterrupted( String repository, MavenProject project, Map<String, String> files )
+    {
+        return find( repository, project, files, false );
+    }
+
+    private String find( String repository, MavenProject project, Map<String, String> files, boolean complete )
+    {
+        Map<String, Map<String, String>> sessions = planned.get( repository + '\t' + project.getId() );
+        if ( sessions != null )
+        {
+            for ( Map.Entry<String, Map<String, String>> entry : sessions.entrySet() )
+            {
+                if ( files.equals( entry.getValue() )
+                    && complete == completed.contains( key( entry.getKey(), repository, project.getId() ) ) )
+                {
+                    return entry.getKey();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Records the files of the given project as planned for the given repository, before they are transferred.
+     *
+     * @param files The files of the project as they are returned by {@link #files(MavenProject, ChecksumCache)}.
+     */
+    void planned( String repository, MavenProject project, Map<String, String> files )
+    {
+        String key = key( session, repository, project.getId() );
+        StringBuilder records = new StringBuilder();
+        for ( Map.Entry<String, String> entry : files.entrySet() )
+        {
+            records.append( PLANNED ).append( '\t' ).append( key ).append( '\t' ).append( entry.getKey() )
+                   .append( '\t' ).append( entry.getValue() ).append( '\n' );
+        }
+        append( records );
+    }
+
+    /**
+     * Records that all files of the given project have arrived in the given repository.
+     */
+    void completed( String repository, MavenProject project )
+    {
+        StringBuilder record = new StringBuilder( COMPLETED ).append( '\t' );
+        record.append( key( session, repository, project.getId() ) ).append( '\n' );
+        append( record );
+    }
+
+    void close()
+    {
+        lock.lock();
+        try
+        {
+            if ( out != null )
+            {
+                out.getChannel().force( false );
+                out.close();
+                out = null;
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Could not close the deploy journal {}: {}", file, e.getMessage() );
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Appends the given records and forces them to the disk if they haven't been forced for a second. A journal which
+     * can't be written is given up with a warning, the deployment itself goes on.
+     */
+    private void append( CharSequence records )
+    {
+        if ( records.length() == 0 )
+        {
+            return;
+        }
+        lock.lock();
+        try
+        {
+            if ( out == null )
+            {
+                return;
+            }
+            out.write( records.toString().getBytes( StandardCharsets.UTF_8 ) );
+            long now = System.nanoTime();
+            if ( now - forced >= FORCE_INTERVAL_NANOS )
+            {
+                out.getChannel().force( false );
+                forced = now;
+            }
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Could not write the deploy journal {}: {}. The deployment can't be resumed.", file,
+                         e.getMessage() );
+            try
+            {
+                out.close();
+            }
+            catch ( IOException closing )
+            {
+                LOGGER.debug( "Could not close the deploy journal.", closing );
+            }
+            out = null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    private static String key( String session, String repository, String project )
+    {
+        return session + '\t' + repository + '\t' + project;
+    }
+
+}
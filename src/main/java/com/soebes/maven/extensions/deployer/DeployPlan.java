@@ -0,0 +1,305 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+
+/**
+ * What the end of the session would install and deploy with the current configuration: every file with its size,
+ * the repository, the group of projects it is scheduled in and an estimate of the duration which is based on the
+ * throughput of an earlier {@link DeployReport}. Written instead of transferring anything if
+ * {@code -Ddeployer.dryRun=true} is given.
+ */
+class DeployPlan
+{
+    static final String FILE_NAME = "deployer-plan.json";
+
+    private final Throughput throughput;
+
+    private final List<Group> groups = new ArrayList<>();
+
+    /**
+     * @param throughput The throughput of an earlier session, used for the estimates.
+     */
+    DeployPlan( Throughput throughput )
+    {
+        this.throughput = throughput;
+    }
+
+    /**
+     * Adds the projects which are transferred by one pool of workers.
+     *
+     * @param phase {@link TransferMetrics#INSTALL} or {@link TransferMetrics#DEPLOY}.
+     * @param repository The target repository or {@code null} if there is none.
+     * @param projects The projects in the order they are handed to the workers.
+     * @param threads The number of workers.
+     * @param schedule The name of the schedule.
+     * @param transfer The way the projects are transferred ({@code generic}, {@code fastPath} or {@code bundle}) or
+     *            {@code none} if they can't be transferred.
+     */
+    void add( String phase, ArtifactRepository repository, List<MavenProject> projects, int threads,
+              String schedule, String transfer )
+    {
+        String name = repository == null ? DistributionRepositories.NONE : DistributionRepositories.key( repository );
+        // The install records only know the id of the local repository.
+        double bytesPerSecond = throughput.get( phase, TransferMetrics.INSTALL.equals( phase ) && repository != null
+                        ? repository.getId() : name );
+        groups.add( new Group( phase, name, projects, threads, schedule, transfer, bytesPerSecond ) );
+    }
+
+    /**
+     * @return The estimated duration of the whole plan: the installation followed by the deployment into all
+     *         repositories at the same time, or {@code -1} if there is nothing to base an estimate on.
+     */
+    long getEstimatedNanos()
+    {
+        long install = 0;
+        long deploy = 0;
+        for ( Group group : groups )
+        {
+            if ( group.estimatedNanos < 0 )
+            {
+                return -1;
+            }
+            if ( TransferMetrics.INSTALL.equals( group.phase ) )
+            {
+                install += group.estimatedNanos;
+            }
+            else
+            {
+                deploy = Math.max( deploy, group.estimatedNanos );
+            }
+        }
+        return install + deploy;
+    }
+
+    int getFiles()
+    {
+        int files = 0;
+        for ( Group group : groups )
+        {
+            files += group.files.size();
+        }
+        return files;
+    }
+
+    long getBytes()
+    {
+        long bytes = 0;
+        for ( Group group : groups )
+        {
+            bytes += group.bytes;
+        }
+        return bytes;
+    }
+
+    void write( File file )
+        throws IOException
+    {
+        Files.createDirectories( file.getAbsoluteFile().getParentFile().toPath() );
+        try ( Writer writer = Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            JsonWriter json = new JsonWriter( writer );
+            json.beginObject();
+            json.name( "version" ).value( MavenDeployerExtensionVersion.getVersion() );
+            json.name( "dryRun" ).value( true );
+            json.name( "throughputFrom" )
+                .value( throughput.isEmpty() ? null : throughput.getSource().getAbsolutePath() );
+            json.name( "files" ).value( getFiles() );
+            json.name( "bytes" ).value( getBytes() );
+            estimate( json, getEstimatedNanos() );
+
+            json.name( "groups" ).beginArray();
+            for ( Group group : groups )
+            {
+                json.beginObject();
+                json.name( "phase" ).value( group.phase );
+                json.name( "repository" ).value( group.repository );
+                json.name( "threads" ).value( group.threads );
+                json.name( "schedule" ).value( group.schedule );
+                json.name( "transfer" ).value( group.transfer );
+                json.name( "projects" ).value( group.projects.size() );
+                json.name( "files" ).value( group.files.size() );
+                json.name( "bytes" ).value( group.bytes );
+                json.name( "throughputBytesPerSecond" ).value( group.bytesPerSecond );
+                estimate( json, group.estimatedNanos );
+                json.endObject();
+            }
+            json.endArray();
+
+            json.name( "artifacts" ).beginArray();
+            for ( Group group : groups )
+            {
+                for ( PlannedFile planned : group.files )
+                {
+                    json.beginObject();
+                    json.name( "phase" ).value( group.phase );
+                    json.name( "project" ).value( planned.project.getId() );
+                    json.name( "order" ).value( planned.order );
+                    json.name( "coordinates" ).value( planned.coordinates );
+                    json.name( "file" ).value( planned.file == null ? null : planned.file.getPath() );
+                    json.name( "size" ).value( planned.size );
+                    json.name( "repository" ).value( group.repository );
+                    estimate( json, group.estimate( planned.size ) );
+                    json.endObject();
+                }
+            }
+            json.endArray();
+            json.endObject();
+            writer.write( System.lineSeparator() );
+        }
+    }
+
+    private static void estimate( JsonWriter json, long nanos )
+        throws IOException
+    {
+        json.name( "estimatedMillis" );
+        if ( nanos < 0 )
+        {
+            json.value( (String) null );
+        }
+        else
+        {
+            json.value( TransferMetrics.millis( nanos ) );
+        }
+    }
+
+    /**
+     * The projects of one pool of workers.
+     */
+    private static final class Group
+    {
+        private final String phase;
+
+        private final String repository;
+
+        private final List<MavenProject> projects;
+
+        private final int threads;
+
+        private final String schedule;
+
+        private final String transfer;
+
+        private final double bytesPerSecond;
+
+        private final List<PlannedFile> files = new ArrayList<>();
+
+        private long bytes;
+
+        private final long estimatedNanos;
+
+        Group( String phase, String repository, List<MavenProject> projects, int threads, String schedule,
+               String transfer, double bytesPerSecond )
+        {
+            this.phase = phase;
+            this.repository = repository;
+            this.projects = projects;
+            this.threads = threads;
+            this.schedule = schedule;
+            this.transfer = transfer;
+            this.bytesPerSecond = bytesPerSecond;
+
+            List<Long> durations = new ArrayList<>();
+            for ( int i = 0; i < projects.size(); i++ )
+            {
+                long projectBytes = 0;
+                for ( PlannedFile planned : PlannedFile.of( projects.get( i ), i ) )
+                {
+                    files.add( planned );
+                    projectBytes += planned.size;
+                }
+                bytes += projectBytes;
+                durations.add( estimate( projectBytes ) );
+            }
+            if ( bytesPerSecond <= 0 )
+            {
+                this.estimatedNanos = -1;
+            }
+            else if ( "bundle".equals( transfer ) )
+            {
+                this.estimatedNanos = estimate( bytes );
+            }
+            else
+            {
+                this.estimatedNanos = SizeSchedule.makespan( durations, threads );
+            }
+        }
+
+        long estimate( long size )
+        {
+            return bytesPerSecond <= 0 ? -1 : (long) ( size * 1e9 / bytesPerSecond );
+        }
+    }
+
+    /**
+     * A file which would be transferred.
+     */
+    private static final class PlannedFile
+    {
+        private final MavenProject project;
+
+        private final int order;
+
+        private final String coordinates;
+
+        private final File file;
+
+        private final long size;
+
+        private PlannedFile( MavenProject project, int order, String coordinates, File file )
+        {
+            this.project = project;
+            this.order = order;
+            this.coordinates = coordinates;
+            this.file = file;
+            this.size = file == null ? 0 : file.length();
+        }
+
+        static List<PlannedFile> of( MavenProject project, int order )
+        {
+            List<PlannedFile> result = new ArrayList<>();
+            try
+            {
+                for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+                {
+                    result.add( new PlannedFile( project, order, artifactFile.toString(), artifactFile.getFile() ) );
+                }
+            }
+            catch ( NoFileAssignedException e )
+            {
+                // Shows up in the plan as a file without a path, the real run would fail the project.
+                result.add( new PlannedFile( project, order, project.getId(), null ) );
+            }
+            return result;
+        }
+    }
+
+}
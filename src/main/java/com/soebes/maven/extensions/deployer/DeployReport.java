@@ -0,0 +1,257 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The machine readable report which is written at the end of the session. It contains the totals and the latency
+ * percentiles of every phase and one entry per installed or deployed artifact.
+ */
+class DeployReport
+{
+    static final String FILE_NAME = "deployer-report.json";
+
+    private static final String[] PHASES = { TransferMetrics.INSTALL, TransferMetrics.DEPLOY };
+
+    private static final String[] STEPS = { TransferMetrics.SESSION_STARTED, TransferMetrics.INSTALL,
+        TransferMetrics.DEPLOY, TransferMetrics.SESSION_ENDED };
+
+    private final TransferMetrics metrics;
+
+    private final int projects;
+
+    /**
+     * @param metrics The measurements of the session.
+     * @param projects The number of projects of the reactor.
+     */
+    DeployReport( TransferMetrics metrics, int projects )
+    {
+        this.metrics = metrics;
+        this.projects = projects;
+    }
+
+    void write( File file )
+        throws IOException
+    {
+        Files.createDirectories( file.getAbsoluteFile().getParentFile().toPath() );
+        List<TransferRecord> records = metrics.getRecords();
+        try ( Writer writer = Files.newBufferedWriter( file.toPath(), StandardCharsets.UTF_8 ) )
+        {
+            JsonWriter json = new JsonWriter( writer );
+            json.beginObject();
+            json.name( "version" ).value( MavenDeployerExtensionVersion.getVersion() );
+            json.name( "projects" ).value( projects );
+
+            json.name( "timeMillis" ).beginObject();
+            for ( String step : STEPS )
+            {
+                json.name( step ).value( TransferMetrics.millis( metrics.getTime( step ) ) );
+            }
+            json.endObject();
+
+            json.name( "phases" ).beginObject();
+            for ( String phase : PHASES )
+            {
+                List<TransferRecord> phaseRecords = select( records, phase );
+                if ( !phaseRecords.isEmpty() )
+                {
+                    json.name( phase );
+                    writePhase( json, phaseRecords, metrics.getTime( phase ) );
+                }
+            }
+            json.endObject();
+
+            json.name( "repositories" ).beginArray();
+            for ( PoolStatistics pool : metrics.getPools() )
+            {
+                json.beginObject();
+                json.name( "repository" ).value( pool.getName() );
+                json.name( "threads" ).value( pool.getCapacity() );
+                json.name( "projects" ).value( pool.getTasks() );
+                json.name( "peakConcurrency" ).value( pool.getPeak() );
+                json.name( "saturationPercent" ).value( pool.getSaturation() * 100 );
+                json.name( "wallTimeMillis" ).value( TransferMetrics.millis( pool.getWallTime() ) );
+                json.name( "expectedMakespanMillis" ).value( TransferMetrics.millis( pool.getExpectedMakespan() ) );
+                json.name( "makespanLowerBoundMillis" )
+                    .value( TransferMetrics.millis( pool.getMakespanLowerBound() ) );
+                json.name( "queueWaitMillis" ).beginObject();
+                json.name( "mean" ).value( TransferMetrics.millis( pool.getMeanWait() ) );
+                json.name( "max" ).value( TransferMetrics.millis( pool.getMaxWait() ) );
+                json.name( "total" ).value( TransferMetrics.millis( pool.getTotalWait() ) );
+                json.endObject();
+                json.name( "permitWaitMillis" ).beginObject();
+                json.name( "projects" ).value( pool.getPermitWaits() );
+                json.name( "max" ).value( TransferMetrics.millis( pool.getMaxPermitWait() ) );
+                json.name( "total" ).value( TransferMetrics.millis( pool.getTotalPermitWait() ) );
+                json.endObject();
+                json.endObject();
+            }
+            json.endArray();
+
+            json.name( "concurrency" ).beginArray();
+            for ( AdaptiveConcurrency concurrency : metrics.getConcurrencies() )
+            {
+                json.beginObject();
+                json.name( "repository" ).value( concurrency.getName() );
+                json.name( "minimum" ).value( concurrency.getMinimum() );
+                json.name( "maximum" ).value( concurrency.getMaximum() );
+                json.name( "peak" ).value( concurrency.getPeak() );
+                json.name( "final" ).value( concurrency.getLimit() );
+                json.name( "decreases" ).value( concurrency.getDecreases() );
+                json.name( "trajectory" ).beginArray();
+                for ( AdaptiveConcurrency.Change change : concurrency.getTrajectory() )
+                {
+                    json.beginObject();
+                    json.name( "timeMillis" ).value( TransferMetrics.millis( change.getNanos() ) );
+                    json.name( "limit" ).value( change.getLimit() );
+                    json.endObject();
+                }
+                json.endArray();
+                json.endObject();
+            }
+            json.endArray();
+
+            json.name( "circuitBreakers" ).beginArray();
+            for ( CircuitBreaker circuitBreaker : metrics.getCircuitBreakers() )
+            {
+                json.beginObject();
+                json.name( "repository" ).value( circuitBreaker.getName() );
+                json.name( "state" ).value( circuitBreaker.getState().name() );
+                json.name( "opened" ).value( circuitBreaker.getOpened() );
+                json.name( "probes" ).value( circuitBreaker.getProbes() );
+                json.name( "skippedProjects" ).value( circuitBreaker.getShortCircuited() );
+                json.endObject();
+            }
+            json.endArray();
+
+            json.name( "identical" ).beginArray();
+            for ( IdenticalArtifacts identical : metrics.getIdenticalArtifacts() )
+            {
+                json.beginObject();
+                json.name( "repository" ).value( identical.getName() );
+                json.name( "comparedFiles" ).value( identical.getFiles() );
+                json.name( "failedFiles" ).value( identical.getFailedFiles() );
+                json.name( "skippedFiles" ).value( identical.getSkippedFiles() );
+                json.name( "skippedBytes" ).value( identical.getSkippedBytes() );
+                json.name( "skippedProjects" ).value( identical.getSkippedProjects() );
+                json.endObject();
+            }
+            json.endArray();
+
+            json.name( "artifacts" ).beginArray();
+            for ( TransferRecord record : records )
+            {
+                json.beginObject();
+                json.name( "phase" ).value( record.getPhase() );
+                json.name( "coordinates" ).value( record.getCoordinates() );
+                json.name( "repository" ).value( record.getRepository() );
+                json.name( "size" ).value( record.getSize() );
+                json.name( "timeMillis" ).value( TransferMetrics.millis( record.getNanos() ) );
+                json.name( "bytesPerSecond" ).value( record.getBytesPerSecond() );
+                json.name( "retries" ).value( record.getRetries() );
+                json.name( "hedged" ).value( record.isHedged() );
+                json.name( "success" ).value( record.isSuccess() );
+                json.endObject();
+            }
+            json.endArray();
+
+            json.endObject();
+        }
+    }
+
+    private void writePhase( JsonWriter json, List<TransferRecord> records, long wallTime )
+        throws IOException
+    {
+        long bytes = 0;
+        int failed = 0;
+        int retries = 0;
+        int hedged = 0;
+        List<Long> latencies = new ArrayList<>();
+        for ( TransferRecord record : records )
+        {
+            retries += record.getRetries();
+            if ( record.isHedged() )
+            {
+                hedged++;
+            }
+            if ( record.isSuccess() )
+            {
+                bytes += record.getSize();
+                latencies.add( record.getNanos() );
+            }
+            else
+            {
+                failed++;
+            }
+        }
+        Collections.sort( latencies );
+
+        json.beginObject();
+        json.name( "artifacts" ).value( records.size() );
+        json.name( "failed" ).value( failed );
+        json.name( "retries" ).value( retries );
+        json.name( "hedged" ).value( hedged );
+        json.name( "bytes" ).value( bytes );
+        json.name( "wallTimeMillis" ).value( TransferMetrics.millis( wallTime ) );
+        json.name( "throughputBytesPerSecond" ).value( wallTime > 0 ? (long) ( bytes * 1e9 / wallTime ) : 0 );
+        json.name( "latencyMillis" ).beginObject();
+        json.name( "p50" ).value( TransferMetrics.millis( percentile( latencies, 50 ) ) );
+        json.name( "p95" ).value( TransferMetrics.millis( percentile( latencies, 95 ) ) );
+        json.name( "p99" ).value( TransferMetrics.millis( percentile( latencies, 99 ) ) );
+        json.name( "max" ).value( TransferMetrics.millis( percentile( latencies, 100 ) ) );
+        json.endObject();
+        json.endObject();
+    }
+
+    private static List<TransferRecord> select( List<TransferRecord> records, String phase )
+    {
+        List<TransferRecord> result = new ArrayList<>();
+        for ( TransferRecord record : records )
+        {
+            if ( phase.equals( record.getPhase() ) )
+            {
+                result.add( record );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The nearest rank percentile of the given sorted values.
+     */
+    static long percentile( List<Long> sorted, int percent )
+    {
+        if ( sorted.isEmpty() )
+        {
+            return 0;
+        }
+        int rank = (int) Math.ceil( percent / 100.0 * sorted.size() );
+        return sorted.get( Math.max( 0, rank - 1 ) );
+    }
+
+}
@@ -0,0 +1,512 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.Properties;
+
+import org.apache.maven.execution.MavenSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The configuration of the extension. An extension can not be configured via a {@code <configuration>} block so
+ * everything is read from the properties of the session (for example {@code -Ddeployer.deploy.threads=4}). User
+ * properties take precedence over system properties.
+ */
+class DeployerConfiguration
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( DeployerConfiguration.class );
+
+    static final String DEPLOY_THREADS = "deployer.deploy.threads";
+
+    static final String DEPLOY_CONNECTIONS = "deployer.deploy.connections";
+
+    static final String DEPLOY_BANDWIDTH = "deployer.deploy.bandwidth";
+
+    static final String DEPLOY_CONCURRENCY = "deployer.deploy.concurrency";
+
+    static final String DEPLOY_CONCURRENCY_MIN = "deployer.deploy.concurrency.min";
+
+    static final String DEPLOY_CIRCUIT_FAILURES = "deployer.deploy.circuit.failures";
+
+    static final String DEPLOY_CIRCUIT_OPEN_TIME = "deployer.deploy.circuit.openTime";
+
+    static final String DEPLOY_RETRIES = "deployer.deploy.retries";
+
+    static final String DEPLOY_PROJECT_RETRIES = "deployer.deploy.projectRetries";
+
+    static final String DEPLOY_RETRY_DELAY = "deployer.deploy.retry.delay";
+
+    static final String DEPLOY_RETRY_MAX_DELAY = "deployer.deploy.retry.maxDelay";
+
+    static final String DEPLOY_HEDGE = "deployer.deploy.hedge";
+
+    static final String DEPLOY_SKIP_IDENTICAL = "deployer.deploy.skipIdentical";
+
+    static final String DEPLOY_BUNDLE_URL = "deployer.deploy.bundle.url";
+
+    static final String DEPLOY_MODE = "deployer.deploy.mode";
+
+    static final String SCHEDULE = "deployer.schedule";
+
+    static final String INSTALL_THREADS = "deployer.install.threads";
+
+    static final String VIRTUAL_THREADS = "deployer.virtualThreads";
+
+    static final String PIPELINE = "deployer.pipeline";
+
+    static final String FAST_PATH = "deployer.fastPath";
+
+    static final String INSTALL_MODE = "deployer.install.mode";
+
+    static final String REPORT_FILE = "deployer.report.file";
+
+    static final String DRY_RUN = "deployer.dryRun";
+
+    static final String PLAN_FILE = "deployer.plan.file";
+
+    static final String RESUME = "deployer.resume";
+
+    static final String JOURNAL = "deployer.journal";
+
+    static final String JOURNAL_FILE = "deployer.journal.file";
+
+    private final MavenSession session;
+
+    private final Properties properties;
+
+    DeployerConfiguration( MavenSession session )
+    {
+        this.session = session;
+        this.properties = new Properties();
+        this.properties.putAll( session.getSystemProperties() );
+        this.properties.putAll( session.getUserProperties() );
+    }
+
+    /**
+     * @return The number of projects which will be deployed in parallel. The default is {@code 1} which means the
+     *         projects are deployed one after another.
+     */
+    int getDeployThreads()
+    {
+        return getThreads( DEPLOY_THREADS, "1" );
+    }
+
+    /**
+     * @return The maximum number of projects which are deployed in parallel into the repository with the given id
+     *         ({@code deployer.deploy.threads.<id>}). The default is {@link #getDeployThreads()}.
+     */
+    int getDeployThreads( String repositoryId )
+    {
+        return getThreads( DEPLOY_THREADS + '.' + repositoryId, Integer.toString( getDeployThreads() ) );
+    }
+
+    /**
+     * @return The size of the connection pool for the repository with the given id
+     *         ({@code deployer.deploy.connections.<id>} or {@code deployer.deploy.connections}). The default is the
+     *         number of deploy threads of the repository.
+     */
+    int getDeployConnections( String repositoryId )
+    {
+        String defaultValue = getString( DEPLOY_CONNECTIONS, Integer.toString( getDeployThreads( repositoryId ) ) );
+        return getThreads( DEPLOY_CONNECTIONS + '.' + repositoryId, defaultValue );
+    }
+
+    /**
+     * @return The maximum bandwidth of all uploads together in bytes per second ({@code deployer.deploy.bandwidth})
+     *         or {@code 0} if it is not limited, which is the default.
+     */
+    long getDeployBandwidth()
+    {
+        return getBandwidth( DEPLOY_BANDWIDTH );
+    }
+
+    /**
+     * @return The maximum bandwidth of the uploads into the repository with the given id in bytes per second
+     *         ({@code deployer.deploy.bandwidth.<id>}) or {@code 0} if only {@link #getDeployBandwidth()} applies.
+     */
+    long getDeployBandwidth( String repositoryId )
+    {
+        return getBandwidth( DEPLOY_BANDWIDTH + '.' + repositoryId );
+    }
+
+    /**
+     * @return {@code true} if the number of projects deployed in parallel into a repository should adapt to the
+     *         failures and the durations ({@code -Ddeployer.deploy.concurrency=adaptive}) between
+     *         {@link #getDeployConcurrencyMin()} and the deploy threads of the repository. The default is
+     *         {@code fixed}.
+     */
+    boolean isAdaptiveConcurrency()
+    {
+        String concurrency = getString( DEPLOY_CONCURRENCY, "fixed" );
+        if ( !"fixed".equals( concurrency ) && !"adaptive".equals( concurrency ) )
+        {
+            LOGGER.warn( "Unknown {} '{}'. Using fixed instead.", DEPLOY_CONCURRENCY, concurrency );
+        }
+        return "adaptive".equals( concurrency );
+    }
+
+    /**
+     * @return The minimum number of projects deployed in parallel into a repository with the adaptive concurrency
+     *         ({@code deployer.deploy.concurrency.min}), which is also where it starts. The default is {@code 1}.
+     */
+    int getDeployConcurrencyMin()
+    {
+        return getThreads( DEPLOY_CONCURRENCY_MIN, "1" );
+    }
+
+    /**
+     * @return How a failed deployment is retried: {@code deployer.deploy.retries} times (default {@code 2}) with a
+     *         random wait of at most {@code deployer.deploy.retry.delay} ms (default {@code 500}) before the first
+     *         retry, which is doubled for every further retry up to {@code deployer.deploy.retry.maxDelay} ms (default
+     *         {@code 30000}).
+     */
+    RetryPolicy getRetryPolicy()
+    {
+        return new RetryPolicy( (int) getLong( DEPLOY_RETRIES, 2 ), getLong( DEPLOY_RETRY_DELAY, 500 ),
+                                getLong( DEPLOY_RETRY_MAX_DELAY, 30000 ) );
+    }
+
+    /**
+     * @return How a project which has failed on the generic transfer stack is retried as a whole: like
+     *         {@link #getRetryPolicy()} but {@code deployer.deploy.projectRetries} times, which is {@code 0} by
+     *         default. The whole project is uploaded again, including the files which had been uploaded before the
+     *         failure.
+     */
+    RetryPolicy getProjectRetryPolicy()
+    {
+        return new RetryPolicy( (int) getLong( DEPLOY_PROJECT_RETRIES, 0 ), getLong( DEPLOY_RETRY_DELAY, 500 ),
+                                getLong( DEPLOY_RETRY_MAX_DELAY, 30000 ) );
+    }
+
+    /**
+     * @return The number of projects which have to fail in a row to open the circuit breaker of their repository
+     *         ({@code deployer.deploy.circuit.failures}, default {@code 5}) or {@code 0} if there is no breaker.
+     */
+    int getCircuitFailures()
+    {
+        return (int) getLong( DEPLOY_CIRCUIT_FAILURES, 5 );
+    }
+
+    /**
+     * @return How long an open circuit breaker skips the projects before it lets one through as a probe in ms
+     *         ({@code deployer.deploy.circuit.openTime}). The default is {@code 10000}.
+     */
+    long getCircuitOpenTime()
+    {
+        return getLong( DEPLOY_CIRCUIT_OPEN_TIME, 10000 );
+    }
+
+    /**
+     * @return The multiple of its expected duration after which an upload is started a second time
+     *         ({@code deployer.deploy.hedge}, for example {@code 3}) or {@code 0} if the uploads are not hedged, which
+     *         is the default.
+     */
+    double getDeployHedge()
+    {
+        String value = getString( DEPLOY_HEDGE, "0" );
+        try
+        {
+            double factor = Double.parseDouble( value );
+            if ( factor > 0 && factor < 1 )
+            {
+                LOGGER.warn( "The value '{}' of {} is less than 1. Using 1 instead.", value, DEPLOY_HEDGE );
+                return 1;
+            }
+            return Math.max( 0, factor );
+        }
+        catch ( NumberFormatException e )
+        {
+            LOGGER.warn( "The value '{}' of {} is not a valid factor. The uploads are not hedged.", value,
+                         DEPLOY_HEDGE );
+            return 0;
+        }
+    }
+
+    /**
+     * @return {@code true} if the files of released projects which the repository has already with the same checksum
+     *         should not be uploaded again ({@code -Ddeployer.deploy.skipIdentical=true}).
+     */
+    boolean isSkipIdentical()
+    {
+        return getBoolean( DEPLOY_SKIP_IDENTICAL, false );
+    }
+
+    /**
+     * @return {@code true} if all projects of a repository should be deployed as one archive
+     *         ({@code -Ddeployer.deploy.mode=bundle}). The default mode is {@code artifacts}.
+     */
+    boolean isBundleDeploy()
+    {
+        String mode = getString( DEPLOY_MODE, "artifacts" );
+        if ( !"artifacts".equals( mode ) && !"bundle".equals( mode ) )
+        {
+            LOGGER.warn( "Unknown {} '{}'. Using artifacts instead.", DEPLOY_MODE, mode );
+        }
+        return "bundle".equals( mode );
+    }
+
+    /**
+     * @return The URL a bundle for the HTTP repository with the given id is uploaded to
+     *         ({@code deployer.deploy.bundle.url.<id>} or {@code deployer.deploy.bundle.url}) or {@code null} if there
+     *         is none, which means the repository can't take a bundle.
+     */
+    String getBundleUrl( String repositoryId )
+    {
+        return getString( DEPLOY_BUNDLE_URL + '.' + repositoryId, getString( DEPLOY_BUNDLE_URL, null ) );
+    }
+
+    /**
+     * @return {@code true} if the projects should be handed to the workers largest first. With {@code reactor}
+     *         ({@code -Ddeployer.schedule=reactor}) the order of the reactor is kept. The default is {@code size}.
+     */
+    boolean isLargestFirst()
+    {
+        return !"reactor".equals( getSchedule() );
+    }
+
+    /**
+     * @return {@code true} if a project should only be deployed after its parent and all other upstream projects
+     *         ({@code -Ddeployer.schedule=dag}). The projects which are ready at the same time are deployed largest
+     *         first.
+     */
+    boolean isDependencyOrder()
+    {
+        return "dag".equals( getSchedule() );
+    }
+
+    /**
+     * @return The name of the schedule: {@code size} (the default), {@code reactor} or {@code dag}.
+     */
+    String getSchedule()
+    {
+        String schedule = getString( SCHEDULE, "size" );
+        if ( !"size".equals( schedule ) && !"reactor".equals( schedule ) && !"dag".equals( schedule ) )
+        {
+            LOGGER.warn( "Unknown {} '{}'. Using size instead.", SCHEDULE, schedule );
+            return "size";
+        }
+        return schedule;
+    }
+
+    /**
+     * @return The number of projects which will be installed into the local repository in parallel. The default is
+     *         {@code 1}.
+     */
+    int getInstallThreads()
+    {
+        return getThreads( INSTALL_THREADS, "1" );
+    }
+
+    /**
+     * @return {@code true} if the workers of the install and the deployment should be virtual threads where the
+     *         running Java supports them (Java 21 and later). The default is {@code true}.
+     */
+    boolean isVirtualThreads()
+    {
+        return getBoolean( VIRTUAL_THREADS, true );
+    }
+
+    /**
+     * @return {@code true} if the artifacts of every successful project should be staged immediately instead of
+     *         doing all the work at the end of the session.
+     */
+    boolean isPipeline()
+    {
+        return getBoolean( PIPELINE, false );
+    }
+
+    /**
+     * @return {@code true} if repositories on the local file system ({@code file://}) should be written directly
+     *         instead of going through the generic transfer stack ({@code -Ddeployer.fastPath=true}). The default is
+     *         {@code false}.
+     */
+    boolean isFastPath()
+    {
+        return getBoolean( FAST_PATH, false );
+    }
+
+    /**
+     * @return {@code true} if the artifacts should be linked (or cloned) into the local repository instead of being
+     *         copied ({@code -Ddeployer.install.mode=link}). The default mode is {@code copy}.
+     */
+    boolean isLinkInstall()
+    {
+        String mode = getString( INSTALL_MODE, "copy" );
+        if ( !"copy".equals( mode ) && !"link".equals( mode ) )
+        {
+            LOGGER.warn( "Unknown {} '{}'. Using copy instead.", INSTALL_MODE, mode );
+        }
+        return "link".equals( mode );
+    }
+
+    /**
+     * @return The file the JSON report is written to. The default is {@code deployer-report.json} in the build
+     *         directory of the top level project. A relative path is resolved against the directory Maven has been
+     *         started in.
+     */
+    File getReportFile()
+    {
+        return getFile( REPORT_FILE, DeployReport.FILE_NAME );
+    }
+
+    /**
+     * @return {@code true} if nothing should be installed or deployed, only the plan should be written
+     *         ({@code -Ddeployer.dryRun=true}).
+     */
+    boolean isDryRun()
+    {
+        return getBoolean( DRY_RUN, false );
+    }
+
+    /**
+     * @return The file the plan of a dry run is written to. The default is {@code deployer-plan.json} in the build
+     *         directory of the top level project. A relative path is resolved against the directory Maven has been
+     *         started in.
+     */
+    File getPlanFile()
+    {
+        return getFile( PLAN_FILE, DeployPlan.FILE_NAME );
+    }
+
+    /**
+     * @return {@code true} if the projects which have been deployed completely by a previous (crashed) session of the
+     *         journal should be skipped ({@code -Ddeployer.resume=true}).
+     */
+    boolean isResume()
+    {
+        return getBoolean( RESUME, false );
+    }
+
+    /**
+     * @return {@code true} if the deployment should keep a journal ({@code -Ddeployer.journal=true}), which is needed
+     *         to resume it. A resumed deployment always keeps one. The default is {@code false}: the journal costs a
+     *         SHA-1 of every file which has not been hashed anyway.
+     */
+    boolean isJournal()
+    {
+        return getBoolean( JOURNAL, false ) || isResume();
+    }
+
+    /**
+     * @return The journal of the deployment. The default is {@code deployer-journal.txt} in the build directory of the
+     *         top level project. A relative path is resolved against the directory Maven has been started in.
+     */
+    File getJournalFile()
+    {
+        return getFile( JOURNAL_FILE, DeployJournal.FILE_NAME );
+    }
+
+    private File getFile( String key, String defaultName )
+    {
+        String value = getString( key, null );
+        if ( value == null )
+        {
+            return new File( session.getTopLevelProject().getBuild().getDirectory(), defaultName );
+        }
+        File file = new File( value );
+        return file.isAbsolute() ? file : new File( session.getExecutionRootDirectory(), value );
+    }
+
+    boolean getBoolean( String key, boolean defaultValue )
+    {
+        return Boolean.parseBoolean( getString( key, Boolean.toString( defaultValue ) ) );
+    }
+
+    String getString( String key, String defaultValue )
+    {
+        String value = properties.getProperty( key );
+        if ( value == null || value.trim().isEmpty() )
+        {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+
+    private long getLong( String key, long defaultValue )
+    {
+        String value = getString( key, Long.toString( defaultValue ) );
+        try
+        {
+            return Math.max( 0, Long.parseLong( value ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            LOGGER.warn( "The value '{}' of {} is not a valid number. Using {} instead.", value, key, defaultValue );
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Reads a bandwidth in bytes per second. The value can have one of the suffixes {@code K}, {@code M} or {@code G}
+     * (for example {@code 10M}, multiples of 1024).
+     */
+    private long getBandwidth( String key )
+    {
+        String value = getString( key, "0" );
+        long factor = 1;
+        String number = value;
+        int suffix = "KMG".indexOf( Character.toUpperCase( value.charAt( value.length() - 1 ) ) );
+        if ( suffix >= 0 )
+        {
+            factor = 1L << ( 10 * ( suffix + 1 ) );
+            number = value.substring( 0, value.length() - 1 );
+        }
+        try
+        {
+            return Math.max( 0, (long) ( Double.parseDouble( number ) * factor ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            LOGGER.warn( "The value '{}' of {} is not a valid bandwidth. The bandwidth is not limited.", value, key );
+            return 0;
+        }
+    }
+
+    /**
+     * Reads a thread count. The value can be given as an absolute number ({@code 4}) or like Maven's {@code -T} option
+     * as a multiple of the available cores ({@code 1.5C}).
+     */
+    private int getThreads( String key, String defaultValue )
+    {
+        String value = getString( key, defaultValue );
+        try
+        {
+            int threads;
+            if ( value.endsWith( "C" ) || value.endsWith( "c" ) )
+            {
+                float factor = Float.parseFloat( value.substring( 0, value.length() - 1 ) );
+                threads = (int) ( factor * Runtime.getRuntime().availableProcessors() );
+            }
+            else
+            {
+                threads = Integer.parseInt( value );
+            }
+            return Math.max( 1, threads );
+        }
+        catch ( NumberFormatException e )
+        {
+            LOGGER.warn( "The value '{}' of {} is not a valid thread count. Using 1 instead.", value, key );
+            return 1;
+        }
+    }
+
+}
@@ -0,0 +1,207 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A repository in a directory of the local file system. Every file is written into a temporary file next to its
+ * final location (with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)} or as a hard
+ * link of a staged copy) and afterwards renamed, so a reader of the repository never sees a partially written file.
+ */
+class DirectoryTarget
+    implements RepositoryTarget
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( DirectoryTarget.class );
+
+    private final File basedir;
+
+    private final BandwidthLimiter limiter;
+
+    private final StagingArea stagingArea;
+
+    DirectoryTarget( File basedir )
+    {
+        this( basedir, null );
+    }
+
+    DirectoryTarget( File basedir, BandwidthLimiter limiter )
+    {
+        this( basedir, limiter, null );
+    }
+
+    /**
+     * @param limiter Limits the bandwidth of the writes or {@code null}. A limited target copies every file through
+     *            the limiter instead of linking it or using {@code transferTo}.
+     * @param stagingArea The staging area whose staged copies are linked instead of copied or {@code null}.
+     */
+    DirectoryTarget( File basedir, BandwidthLimiter limiter, StagingArea stagingArea )
+    {
+        this.basedir = basedir;
+        this.limiter = limiter;
+        this.stagingArea = stagingArea;
+    }
+
+    @Override
+    public byte[] read( String path )
+        throws IOException
+    {
+        File file = new File( basedir, path );
+        return file.isFile() ? Files.readAllBytes( file.toPath() ) : null;
+    }
+
+    @Override
+    public void write( String path, File source )
+        throws IOException
+    {
+        File target = new File( basedir, path );
+        File temporary = prepare( target );
+        try
+        {
+            if ( limiter != null )
+            {
+                try ( InputStream in = Files.newInputStream( source.toPath() );
+                                OutputStream out = Files.newOutputStream( temporary.toPath() ) )
+                {
+                    limiter.copy( in, out );
+                }
+            }
+            else if ( !link( source, temporary ) )
+            {
+                transfer( source, temporary );
+            }
+            AtomicFiles.move( temporary, target );
+        }
+        finally
+        {
+            Files.deleteIfExists( temporary.toPath() );
+        }
+    }
+
+    @Override
+    public void write( String path, byte[] content )
+        throws IOException
+    {
+        File target = new File( basedir, path );
+        File temporary = prepare( target );
+        try
+        {
+            if ( limiter != null )
+            {
+                limiter.acquire( content.length );
+            }
+            Files.write( temporary.toPath(), content );
+            AtomicFiles.move( temporary, target );
+        }
+        finally
+        {
+            Files.deleteIfExists( temporary.toPath() );
+        }
+    }
+
+    /**
+     * Writes the remaining content of the given stream.
+     */
+    void write( String path, InputStream in )
+        throws IOException
+    {
+        File target = new File( basedir, path );
+        File temporary = prepare( target );
+        try
+        {
+            if ( limiter != null )
+            {
+                try ( OutputStream out = Files.newOutputStream( temporary.toPath() ) )
+                {
+                    limiter.copy( in, out );
+                }
+            }
+            else
+            {
+                Files.copy( in, temporary.toPath(), StandardCopyOption.REPLACE_EXISTING );
+            }
+            AtomicFiles.move( temporary, target );
+        }
+        finally
+        {
+            Files.deleteIfExists( temporary.toPath() );
+        }
+    }
+
+    private File prepare( File target )
+        throws IOException
+    {
+        Files.createDirectories( target.getParentFile().toPath() );
+        File temporary = AtomicFiles.temporaryFile( target );
+        // A left over of an aborted deployment.
+        Files.deleteIfExists( temporary.toPath() );
+        return temporary;
+    }
+
+    /**
+     * A staged copy is owned by the extension and never changed again, so the repository can share it via a hard
+     * link instead of copying the bytes.
+     */
+    private boolean link( File source, File temporary )
+    {
+        if ( stagingArea == null || !stagingArea.isStaged( source ) )
+        {
+            return false;
+        }
+        try
+        {
+            Files.createLink( temporary.toPath(), source.toPath() );
+            return true;
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            // For example a different file system.
+            LOGGER.debug( "Could not link {}: {}", source, e.getMessage() );
+            return false;
+        }
+    }
+
+    private void transfer( File source, File target )
+        throws IOException
+    {
+        try ( FileChannel in = FileChannel.open( source.toPath(), StandardOpenOption.READ );
+                        FileChannel out = FileChannel.open( target.toPath(), StandardOpenOption.CREATE_NEW,
+                                                            StandardOpenOption.WRITE ) )
+        {
+            long size = in.size();
+            long position = 0;
+            while ( position < size )
+            {
+                position += in.transferTo( position, size - position, out );
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Resolves the repository every project of the reactor is deployed to. Every project uses its own
+ * {@code distributionManagement} (sub-trees of a reactor can deploy into different repositories) and falls back to the
+ * one of the top level project. Maven creates a separate {@link ArtifactRepository} (including its authentication and
+ * proxy) for every project, so the first instance per id and URL is kept for the whole session and used for all
+ * projects deploying there.
+ */
+class DistributionRepositories
+{
+    /**
+     * The key of the projects without any repository.
+     */
+    static final String NONE = "none";
+
+    private final MavenProject topLevelProject;
+
+    private final ConcurrentMap<String, ArtifactRepository> repositories = new ConcurrentHashMap<>();
+
+    DistributionRepositories( MavenProject topLevelProject )
+    {
+        this.topLevelProject = topLevelProject;
+    }
+
+    /**
+     * @return The repository of the given project or {@code null} if neither the project nor the top level project
+     *         define one.
+     */
+    ArtifactRepository get( MavenProject project )
+    {
+        ArtifactRepository repository = project.getDistributionManagementArtifactRepository();
+        if ( repository == null && topLevelProject != null )
+        {
+            repository = topLevelProject.getDistributionManagementArtifactRepository();
+        }
+        if ( repository == null )
+        {
+            return null;
+        }
+        ArtifactRepository existing = repositories.putIfAbsent( key( repository ), repository );
+        return existing != null ? existing : repository;
+    }
+
+    /**
+     * @return The given projects grouped by their repository. The groups and the projects within a group keep the
+     *         order of the given list.
+     */
+    List<RepositoryGroup> group( List<MavenProject> projects )
+    {
+        Map<String, RepositoryGroup> groups = new LinkedHashMap<>();
+        for ( MavenProject project : projects )
+        {
+            ArtifactRepository repository = get( project );
+            String key = repository == null ? NONE : key( repository );
+            RepositoryGroup group = groups.get( key );
+            if ( group == null )
+            {
+                group = new RepositoryGroup( key, repository );
+                groups.put( key, group );
+            }
+            group.add( project );
+        }
+        return new ArrayList<>( groups.values() );
+    }
+
+    static String key( ArtifactRepository repository )
+    {
+        return repository.getId() + " (" + repository.getUrl() + ")";
+    }
+
+}
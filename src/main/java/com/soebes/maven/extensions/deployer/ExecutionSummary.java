@@ -0,0 +1,94 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * The aggregated result of running a {@link ProjectTask} for all projects of the reactor.
+ */
+class ExecutionSummary
+{
+    private final List<MavenProject> succeeded;
+
+    private final Map<MavenProject, Throwable> failed;
+
+    ExecutionSummary()
+    {
+        this.succeeded = new ArrayList<MavenProject>();
+        this.failed = new LinkedHashMap<MavenProject, Throwable>();
+    }
+
+    synchronized void succeeded( MavenProject project )
+    {
+        succeeded.add( project );
+    }
+
+    /**
+     * Records the failure of a project. A project which has been recorded as succeeded before (for example because
+     * only a later step for a group of projects has failed) is moved to the failed ones.
+     */
+    synchronized void failed( MavenProject project, Throwable cause )
+    {
+        succeeded.remove( project );
+        failed.put( project, cause );
+    }
+
+    /**
+     * Adds the results of another summary, for example the one of a different repository.
+     */
+    void add( ExecutionSummary other )
+    {
+        List<MavenProject> otherSucceeded = other.getSucceeded();
+        Map<MavenProject, Throwable> otherFailed = other.getFailed();
+        synchronized ( this )
+        {
+            succeeded.addAll( otherSucceeded );
+            failed.putAll( otherFailed );
+        }
+    }
+
+    synchronized List<MavenProject> getSucceeded()
+    {
+        return Collections.unmodifiableList( new ArrayList<MavenProject>( succeeded ) );
+    }
+
+    synchronized Map<MavenProject, Throwable> getFailed()
+    {
+        return Collections.unmodifiableMap( new LinkedHashMap<MavenProject, Throwable>( failed ) );
+    }
+
+    synchronized int getTotal()
+    {
+        return succeeded.size() + failed.size();
+    }
+
+    synchronized boolean isSuccess()
+    {
+        return failed.isEmpty();
+    }
+
+}
@@ -0,0 +1,336 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.Snapshot;
+import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deploys into a repository on the local file system ({@code file://} URL) without going through the generic
+ * transfer stack. The files are written by a {@link RepositoryTarget} (a {@link DirectoryTarget} for the repository
+ * itself), the checksum files are written from the {@link ChecksumCache}. The changes of the metadata files are
+ * collected in a {@link MetadataBatch} and every metadata file is written once after the files of all projects.
+ */
+class FileRepositoryDeployer
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( FileRepositoryDeployer.class );
+
+    private static final String SNAPSHOT = "SNAPSHOT";
+
+    private static final String METADATA = "maven-metadata.xml";
+
+    private static final String[] CHECKSUMS = { "md5", "sha1" };
+
+    private final ChecksumCache checksumCache;
+
+    private final Date startTime;
+
+    private final TransferMetrics metrics;
+
+    /**
+     * @param checksumCache The digests of the artifacts.
+     * @param startTime The start of the session which is used for the timestamp of deployed SNAPSHOTs (like Maven
+     *            itself does).
+     * @param metrics Receives the duration of every deployed file.
+     */
+    FileRepositoryDeployer( ChecksumCache checksumCache, Date startTime, TransferMetrics metrics )
+    {
+        this.checksumCache = checksumCache;
+        this.startTime = startTime;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @return {@code true} if the given project can be deployed into the given repository by this deployer.
+     */
+    boolean canDeploy( MavenProject project, ArtifactRepository repository )
+    {
+        return basedir( repository ) != null && canDeploy( project );
+    }
+
+    /**
+     * @return {@code true} if the given project can be written by this deployer into any {@link RepositoryTarget}.
+     */
+    static boolean canDeploy( MavenProject project )
+    {
+        // The group level metadata of plugins (the prefixes) is left to the generic deployer.
+        return !"maven-plugin".equals( project.getPackaging() );
+    }
+
+    /**
+     * @return The directory of a repository with a {@code file://} URL and the default layout, otherwise
+     *         {@code null}.
+     */
+    static File basedir( ArtifactRepository repository )
+    {
+        if ( repository == null || repository.getUrl() == null || !repository.getUrl().startsWith( "file:" )
+            || !"default".equals( repository.getLayout().getId() ) )
+        {
+            return null;
+        }
+        try
+        {
+            return new File( new URI( repository.getUrl().replace( " ", "%20" ) ) ).getAbsoluteFile();
+        }
+        catch ( URISyntaxException | IllegalArgumentException e )
+        {
+            LOGGER.debug( "Not a local repository: {}", repository.getUrl() );
+            return null;
+        }
+    }
+
+    /**
+     * @param limiter Limits the bandwidth of the writes into the repository or {@code null}.
+     * @param retryPolicy Retries the failed reads and writes.
+     * @param hedging Hedges the writes of the artifacts or {@code null}.
+     * @param stagingArea The staging area whose staged copies are linked into the repository or {@code null}.
+     * @return A new batch for the metadata of the given repository which has to be written with
+     *         {@link #commit(MetadataBatch)} after all projects have been deployed.
+     */
+    MetadataBatch begin( ArtifactRepository repository, BandwidthLimiter limiter, RetryPolicy retryPolicy,
+                         Hedging hedging, StagingArea stagingArea )
+    {
+        DirectoryTarget directory = new DirectoryTarget( basedir( repository ), limiter, stagingArea );
+        RepositoryTarget target = new ResilientTarget( directory, retryPolicy, hedging );
+        return new MetadataBatch( target, DistributionRepositories.key( repository ) );
+    }
+
+    /**
+     * Writes all files of the given project into the target of the batch. The changes of the metadata are only
+     * collected in the batch and written by {@link #commit(MetadataBatch)}.
+     */
+    void deploy( MavenProject project, MetadataBatch batch )
+        throws IOException, NoFileAssignedException
+    {
+        deploy( project, batch, null );
+    }
+
+    /**
+     * Writes the files of the given project like {@link #deploy(MavenProject, MetadataBatch)} except for the files
+     * which the repository has already with the same content.
+     *
+     * @param identical The files which the repository has already or {@code null}.
+     */
+    void deploy( MavenProject project, MetadataBatch batch, IdenticalArtifacts identical )
+        throws IOException, NoFileAssignedException
+    {
+        long start = System.currentTimeMillis();
+        RepositoryTarget target = batch.getTarget();
+        List<ArtifactFile> files = ArtifactFile.of( project );
+
+        boolean snapshot = project.getArtifact().isSnapshot();
+        String baseVersion = project.getArtifact().getBaseVersion();
+        String version = baseVersion;
+        Metadata versionMetadata = null;
+        Snapshot nextSnapshot = null;
+        String versionDirectory = parent( files.get( 0 ).getPath( baseVersion ) );
+        if ( snapshot )
+        {
+            versionMetadata = batch.get( versionDirectory + METADATA );
+            nextSnapshot = nextSnapshot( versionMetadata );
+            version = baseVersion.substring( 0, baseVersion.length() - SNAPSHOT.length() )
+                + nextSnapshot.getTimestamp() + '-' + nextSnapshot.getBuildNumber();
+        }
+
+        for ( ArtifactFile artifactFile : files )
+        {
+            long fileStart = System.nanoTime();
+            String path = artifactFile.getPath( version );
+            if ( identical != null && identical.isIdentical( path ) )
+            {
+                LOGGER.debug( "{} is identical in {}, not uploading it again.", path, batch.getRepositoryName() );
+                identical.skipped( artifactFile.getFile() );
+                continue;
+            }
+            publish( target, path, artifactFile.getFile() );
+            int retries = 0;
+            boolean hedged = false;
+            if ( target instanceof ResilientTarget )
+            {
+                retries = ( (ResilientTarget) target ).getRetries( path );
+                hedged = ( (ResilientTarget) target ).isHedged( path );
+            }
+            metrics.record( new TransferRecord( TransferMetrics.DEPLOY, artifactFile.toString(),
+                                                batch.getRepositoryName(), artifactFile.getFile().length(),
+                                                System.nanoTime() - fileStart, retries, hedged, true ) );
+        }
+
+        // Only a project whose files are all there changes the metadata.
+        if ( snapshot )
+        {
+            updateSnapshotMetadata( versionMetadata, project, files, nextSnapshot, version );
+            batch.changed( versionDirectory + METADATA, project );
+        }
+        String artifactMetadataPath = parent( versionDirectory.substring( 0, versionDirectory.length() - 1 ) )
+            + METADATA;
+        updateArtifactMetadata( batch.get( artifactMetadataPath ), project, baseVersion, snapshot );
+        batch.changed( artifactMetadataPath, project );
+
+        LOGGER.info( "Deployed {} files of {} to {} in {} ms.", files.size(), project.getId(),
+                     batch.getRepositoryName(), System.currentTimeMillis() - start );
+    }
+
+    /**
+     * Writes every changed metadata file of the batch once. This is done after the files of all projects have been
+     * written, so nobody sees a version before all of its files are there.
+     */
+    void commit( MetadataBatch batch )
+        throws IOException
+    {
+        long start = System.currentTimeMillis();
+        Map<String, Metadata> changed = batch.getChanged();
+        for ( Map.Entry<String, Metadata> entry : changed.entrySet() )
+        {
+            writeMetadata( batch.getTarget(), entry.getKey(), entry.getValue() );
+        }
+        LOGGER.info( "Wrote {} metadata files of {} projects to {} in {} ms.", changed.size(),
+                     batch.getProjects().size(), batch.getRepositoryName(), System.currentTimeMillis() - start );
+    }
+
+    /**
+     * @return The directory of the given path including the trailing {@code /}.
+     */
+    private static String parent( String path )
+    {
+        return path.substring( 0, path.lastIndexOf( '/' ) + 1 );
+    }
+
+    private Snapshot nextSnapshot( Metadata versionMetadata )
+    {
+        Versioning versioning = versionMetadata.getVersioning();
+        Snapshot snapshot = new Snapshot();
+        snapshot.setTimestamp( format( "yyyyMMdd.HHmmss", startTime ) );
+        snapshot.setBuildNumber( 1 );
+        if ( versioning != null && versioning.getSnapshot() != null )
+        {
+            snapshot.setBuildNumber( versioning.getSnapshot().getBuildNumber() + 1 );
+        }
+        return snapshot;
+    }
+
+    private void updateSnapshotMetadata( Metadata metadata, MavenProject project, List<ArtifactFile> files,
+                                         Snapshot snapshot, String version )
+    {
+        String lastUpdated = format( "yyyyMMddHHmmss", startTime );
+        Versioning versioning = metadata.getVersioning() != null ? metadata.getVersioning() : new Versioning();
+        versioning.setSnapshot( snapshot );
+
+        for ( ArtifactFile file : files )
+        {
+            String classifier = file.getClassifier() == null ? "" : file.getClassifier();
+            for ( Iterator<SnapshotVersion> it = versioning.getSnapshotVersions().iterator(); it.hasNext(); )
+            {
+                SnapshotVersion existing = it.next();
+                if ( classifier.equals( existing.getClassifier() )
+                    && file.getExtension().equals( existing.getExtension() ) )
+                {
+                    it.remove();
+                }
+            }
+            SnapshotVersion snapshotVersion = new SnapshotVersion();
+            snapshotVersion.setClassifier( classifier );
+            snapshotVersion.setExtension( file.getExtension() );
+            snapshotVersion.setVersion( version );
+            snapshotVersion.setUpdated( lastUpdated );
+            versioning.addSnapshotVersion( snapshotVersion );
+        }
+        versioning.setLastUpdated( lastUpdated );
+
+        metadata.setModelVersion( "1.1.0" );
+        metadata.setGroupId( project.getGroupId() );
+        metadata.setArtifactId( project.getArtifactId() );
+        metadata.setVersion( project.getArtifact().getBaseVersion() );
+        metadata.setVersioning( versioning );
+    }
+
+    private void updateArtifactMetadata( Metadata metadata, MavenProject project, String baseVersion,
+                                         boolean snapshot )
+    {
+        Versioning versioning = metadata.getVersioning() != null ? metadata.getVersioning() : new Versioning();
+        if ( !versioning.getVersions().contains( baseVersion ) )
+        {
+            versioning.addVersion( baseVersion );
+        }
+        if ( !snapshot )
+        {
+            versioning.setRelease( baseVersion );
+        }
+        versioning.setLastUpdated( format( "yyyyMMddHHmmss", new Date() ) );
+
+        metadata.setGroupId( project.getGroupId() );
+        metadata.setArtifactId( project.getArtifactId() );
+        metadata.setVersioning( versioning );
+    }
+
+    private void publish( RepositoryTarget target, String path, File source )
+        throws IOException
+    {
+        target.write( path, source );
+        writeChecksums( target, path, checksumCache.get( source ) );
+    }
+
+    private void writeChecksums( RepositoryTarget target, String path, Checksums checksums )
+        throws IOException
+    {
+        for ( String algorithm : CHECKSUMS )
+        {
+            target.write( path + '.' + algorithm, checksums.get( algorithm ).getBytes( StandardCharsets.US_ASCII ) );
+        }
+    }
+
+    private void writeMetadata( RepositoryTarget target, String path, Metadata metadata )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new MetadataXpp3Writer().write( out, metadata );
+        byte[] content = out.toByteArray();
+        target.write( path, content );
+        writeChecksums( target, path, ChecksumCalculator.calculate( content ) );
+    }
+
+    private static String format( String pattern, Date date )
+    {
+        SimpleDateFormat format = new SimpleDateFormat( pattern );
+        format.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+        return format.format( date );
+    }
+
+}
@@ -0,0 +1,160 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryListener;
+
+/**
+ * A {@link RepositoryListener} which passes every event to the listener Maven has configured (for example the one
+ * which logs the uploads), so a subclass can watch the events without changing what the user sees. The events a newer
+ * resolver may add are ignored by the {@link AbstractRepositoryListener}.
+ */
+class ForwardingRepositoryListener
+    extends AbstractRepositoryListener
+{
+    private final RepositoryListener delegate;
+
+    /**
+     * @param delegate The listener of the session which may be {@code null}.
+     */
+    ForwardingRepositoryListener( RepositoryListener delegate )
+    {
+        this.delegate = delegate != null ? delegate : new AbstractRepositoryListener()
+        {
+        };
+    }
+
+    @Override
+    public void artifactDescriptorInvalid( RepositoryEvent event )
+    {
+        delegate.artifactDescriptorInvalid( event );
+    }
+
+    @Override
+    public void artifactDescriptorMissing( RepositoryEvent event )
+    {
+        delegate.artifactDescriptorMissing( event );
+    }
+
+    @Override
+    public void metadataInvalid( RepositoryEvent event )
+    {
+        delegate.metadataInvalid( event );
+    }
+
+    @Override
+    public void artifactResolving( RepositoryEvent event )
+    {
+        delegate.artifactResolving( event );
+    }
+
+    @Override
+    public void artifactResolved( RepositoryEvent event )
+    {
+        delegate.artifactResolved( event );
+    }
+
+    @Override
+    public void metadataResolving( RepositoryEvent event )
+    {
+        delegate.metadataResolving( event );
+    }
+
+    @Override
+    public void metadataResolved( RepositoryEvent event )
+    {
+        delegate.metadataResolved( event );
+    }
+
+    @Override
+    public void artifactDownloading( RepositoryEvent event )
+    {
+        delegate.artifactDownloading( event );
+    }
+
+    @Override
+    public void artifactDownloaded( RepositoryEvent event )
+    {
+        delegate.artifactDownloaded( event );
+    }
+
+    @Override
+    public void metadataDownloading( RepositoryEvent event )
+    {
+        delegate.metadataDownloading( event );
+    }
+
+    @Override
+    public void metadataDownloaded( RepositoryEvent event )
+    {
+        delegate.metadataDownloaded( event );
+    }
+
+    @Override
+    public void artifactInstalling( RepositoryEvent event )
+    {
+        delegate.artifactInstalling( event );
+    }
+
+    @Override
+    public void artifactInstalled( RepositoryEvent event )
+    {
+        delegate.artifactInstalled( event );
+    }
+
+    @Override
+    public void metadataInstalling( RepositoryEvent event )
+    {
+        delegate.metadataInstalling( event );
+    }
+
+    @Override
+    public void metadataInstalled( RepositoryEvent event )
+    {
+        delegate.metadataInstalled( event );
+    }
+
+    @Override
+    public void artifactDeploying( RepositoryEvent event )
+    {
+        delegate.artifactDeploying( event );
+    }
+
+    @Override
+    public void artifactDeployed( RepositoryEvent event )
+    {
+        delegate.artifactDeployed( event );
+    }
+
+    @Override
+    public void metadataDeploying( RepositoryEvent event )
+    {
+        delegate.metadataDeploying( event );
+    }
+
+    @Override
+    public void metadataDeployed( RepositoryEvent event )
+    {
+        delegate.metadataDeployed( event );
+    }
+
+}
@@ -0,0 +1,227 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hedges the uploads into a single repository: if an upload takes far longer than expected for its size, the same
+ * upload is started a second time and whichever finishes first wins, the other one is cancelled. This only works for
+ * uploads which can be repeated without harm, like writing the same content to the same path. The expected duration
+ * is a linear function of the size ({@code latency + size / throughput}) which is fitted to the finished uploads by
+ * least squares, so it covers the latency of small files as well as the throughput of big ones. Nothing is hedged
+ * before {@value #MIN_SAMPLES} uploads have finished.
+ */
+class Hedging
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( Hedging.class );
+
+    static final int MIN_SAMPLES = 8;
+
+    /**
+     * The minimum wait before an upload is hedged, so tiny files don't trigger hedges by scheduling noise.
+     */
+    static final long MIN_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos( 50 );
+
+    private final String repositoryName;
+
+    private final double factor;
+
+    private final ExecutorService executor;
+
+    private final AtomicInteger hedged = new AtomicInteger();
+
+    private final AtomicInteger won = new AtomicInteger();
+
+    private int samples;
+
+    private double sumSize;
+
+    private double sumNanos;
+
+    private double sumSizeSquared;
+
+    private double sumSizeNanos;
+
+    /**
+     * @param repositoryName The name of the repository for the log.
+     * @param factor An upload is hedged once it takes longer than this multiple of its expected duration.
+     * @param executor Runs the uploads and their hedges. It needs at least two threads per worker which uploads.
+     */
+    Hedging( String repositoryName, double factor, ExecutorService executor )
+    {
+        this.repositoryName = repositoryName;
+        this.factor = factor;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs the given upload and hedges it if it takes too long.
+     *
+     * @param description What is uploaded, for the log.
+     * @param size The number of bytes which are uploaded.
+     * @return {@code true} if the upload has been hedged.
+     */
+    boolean run( String description, long size, final RetryPolicy.Action action )
+        throws Exception
+    {
+        long delay = delayNanos( size );
+        CompletionService<Long> uploads = new ExecutorCompletionService<>( executor );
+        Future<Long> primary = uploads.submit( timed( action ) );
+        Future<Long> hedge = null;
+        try
+        {
+            Future<Long> first = delay > 0 ? uploads.poll( delay, TimeUnit.NANOSECONDS ) : uploads.take();
+            if ( first == null )
+            {
+                hedged.incrementAndGet();
+                LOGGER.info( "{} to {} takes longer than {} ms, starting a second upload.", description,
+                             repositoryName, TimeUnit.NANOSECONDS.toMillis( delay ) );
+                hedge = uploads.submit( timed( action ) );
+                first = uploads.take();
+                if ( failed( first ) )
+                {
+                    // The other upload may still succeed.
+                    first = uploads.take();
+                }
+            }
+            long nanos = result( first );
+            if ( first == hedge )
+            {
+                won.incrementAndGet();
+            }
+            else
+            {
+                sample( size, nanos );
+            }
+            return hedge != null;
+        }
+        finally
+        {
+            primary.cancel( true );
+            if ( hedge != null )
+            {
+                hedge.cancel( true );
+            }
+        }
+    }
+
+    /**
+     * @return The number of uploads which have been hedged.
+     */
+    int getHedged()
+    {
+        return hedged.get();
+    }
+
+    /**
+     * @return The number of hedges which have finished before their upload.
+     */
+    int getWon()
+    {
+        return won.get();
+    }
+
+    /**
+     * @return The time after which an upload of the given size is hedged or {@code 0} if there are not enough
+     *         finished uploads to know what to expect.
+     */
+    synchronized long delayNanos( long size )
+    {
+        if ( samples < MIN_SAMPLES )
+        {
+            return 0;
+        }
+        double meanSize = sumSize / samples;
+        double meanNanos = sumNanos / samples;
+        double variance = sumSizeSquared / samples - meanSize * meanSize;
+        double nanosPerByte = variance > 0 ? ( sumSizeNanos / samples - meanSize * meanNanos ) / variance : 0;
+        double latency = meanNanos - Math.max( 0, nanosPerByte ) * meanSize;
+        double expected = Math.max( 0, latency ) + Math.max( 0, nanosPerByte ) * size;
+        return Math.max( MIN_DELAY_NANOS, (long) ( factor * Math.max( expected, meanNanos / 10 ) ) );
+    }
+
+    synchronized void sample( long size, long nanos )
+    {
+        samples++;
+        sumSize += size;
+        sumNanos += nanos;
+        sumSizeSquared += (double) size * size;
+        sumSizeNanos += (double) size * nanos;
+    }
+
+    private static Callable<Long> timed( final RetryPolicy.Action action )
+    {
+        return new Callable<Long>()
+        {
+            @Override
+            public Long call()
+                throws Exception
+            {
+                long start = System.nanoTime();
+                action.run();
+                return System.nanoTime() - start;
+            }
+        };
+    }
+
+    private static boolean failed( Future<Long> future )
+        throws InterruptedException
+    {
+        try
+        {
+            future.get();
+            return false;
+        }
+        catch ( ExecutionException e )
+        {
+            return true;
+        }
+    }
+
+    private static long result( Future<Long> future )
+        throws Exception
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof Exception )
+            {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Base64;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.Authentication;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A repository which is accessed with plain HTTP requests: {@code GET} to read and {@code PUT} to write a file. This
+ * is only used for the few requests of the bundle mode and the comparison of the checksums, everything else goes
+ * through the transport of Maven. The credentials of the server are sent with basic authentication. The proxy which
+ * Maven has assigned to the repository from the {@code settings.xml} is used, its credentials can only be sent for a
+ * {@code http://} URL.
+ */
+class HttpRepository
+    implements RepositoryTarget
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( HttpRepository.class );
+
+    private static final int CONNECT_TIMEOUT = 10 * 1000;
+
+    private static final int READ_TIMEOUT = 30 * 60 * 1000;
+
+    private final String url;
+
+    private final String authorization;
+
+    private final Proxy proxy;
+
+    private final String proxyAuthorization;
+
+    private final BandwidthLimiter limiter;
+
+    /**
+     * @param limiter Limits the bandwidth of the uploads or {@code null}.
+     */
+    HttpRepository( ArtifactRepository repository, BandwidthLimiter limiter )
+    {
+        this( repository.getUrl(), repository.getAuthentication(), repository.getProxy(), limiter );
+    }
+
+    /**
+     * @param base The URL all paths are relative to.
+     * @param authentication The credentials or {@code null}.
+     * @param proxy The proxy of the repository or {@code null} for the proxy of the JVM (usually none).
+     * @param limiter Limits the bandwidth of the uploads or {@code null}.
+     */
+    HttpRepository( String base, Authentication authentication, org.apache.maven.repository.Proxy proxy,
+                    BandwidthLimiter limiter )
+    {
+        this.limiter = limiter;
+        this.url = base.endsWith( "/" ) ? base : base + '/';
+        this.authorization = authentication != null && authentication.getUsername() != null
+                        ? basic( authentication.getUsername(), authentication.getPassword() )
+                        : null;
+        if ( proxy != null && proxy.getHost() != null )
+        {
+            Proxy.Type type = org.apache.maven.repository.Proxy.PROXY_SOCKS5.equals( proxy.getProtocol() )
+                || org.apache.maven.repository.Proxy.PROXY_SOCKS4.equals( proxy.getProtocol() ) ? Proxy.Type.SOCKS
+                                : Proxy.Type.HTTP;
+            this.proxy = new Proxy( type, InetSocketAddress.createUnresolved( proxy.getHost(), proxy.getPort() ) );
+            boolean credentials = proxy.getUserName() != null;
+            // A HTTPS connection is tunneled through the proxy, the header would only reach the server.
+            this.proxyAuthorization = credentials && type == Proxy.Type.HTTP && this.url.startsWith( "http://" )
+                            ? basic( proxy.getUserName(), proxy.getPassword() )
+                            : null;
+            if ( credentials && proxyAuthorization == null )
+            {
+                LOGGER.warn( "The credentials of the proxy {} can not be sent to it for {}, the requests of the"
+                    + " extension are sent without them.", proxy.getHost(), this.url );
+            }
+        }
+        else
+        {
+            this.proxy = null;
+            this.proxyAuthorization = null;
+        }
+    }
+
+    private static String basic( String username, String password )
+    {
+        String credentials = username + ':' + ( password == null ? "" : password );
+        return "Basic " + Base64.getEncoder().encodeToString( credentials.getBytes( StandardCharsets.UTF_8 ) );
+    }
+
+    /**
+     * @return {@code true} for a repository with a {@code http://} or {@code https://} URL and the default layout.
+     */
+    static boolean isHttp( ArtifactRepository repository )
+    {
+        return repository != null && repository.getUrl() != null
+            && ( repository.getUrl().startsWith( "http://" ) || repository.getUrl().startsWith( "https://" ) )
+            && "default".equals( repository.getLayout().getId() );
+    }
+
+    @Override
+    public byte[] read( String path )
+        throws IOException
+    {
+        HttpURLConnection connection = open( path, "GET" );
+        try
+        {
+            int status = connection.getResponseCode();
+            if ( status == HttpURLConnection.HTTP_NOT_FOUND )
+            {
+                return null;
+            }
+            check( connection, path );
+            try ( InputStream in = connection.getInputStream() )
+            {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ( ( read = in.read( buffer ) ) != -1 )
+                {
+                    out.write( buffer, 0, read );
+                }
+                return out.toByteArray();
+            }
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public void write( String path, File source )
+        throws IOException
+    {
+        HttpURLConnection connection = open( path, "PUT" );
+        try
+        {
+            connection.setDoOutput( true );
+            connection.setFixedLengthStreamingMode( source.length() );
+            try ( OutputStream out = upload( connection ) )
+            {
+                Files.copy( source.toPath(), out );
+            }
+            check( connection, path );
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public void write( String path, byte[] content )
+        throws IOException
+    {
+        HttpURLConnection connection = open( path, "PUT" );
+        try
+        {
+            connection.setDoOutput( true );
+            connection.setFixedLengthStreamingMode( content.length );
+            try ( OutputStream out = upload( connection ) )
+            {
+                out.write( content );
+            }
+            check( connection, path );
+        }
+        finally
+        {
+            connection.disconnect();
+        }
+    }
+
+    private HttpURLConnection open( String path, String method )
+        throws IOException
+    {
+        URL target = new URL( url + path );
+        HttpURLConnection connection =
+            (HttpURLConnection) ( proxy != null ? target.openConnection( proxy ) : target.openConnection() );
+        connection.setRequestMethod( method );
+        connection.setConnectTimeout( CONNECT_TIMEOUT );
+        connection.setReadTimeout( READ_TIMEOUT );
+        if ( authorization != null )
+        {
+            connection.setRequestProperty( "Authorization", authorization );
+        }
+        if ( proxyAuthorization != null )
+        {
+            connection.setRequestProperty( "Proxy-Authorization", proxyAuthorization );
+        }
+        return connection;
+    }
+
+    private OutputStream upload( HttpURLConnection connection )
+        throws IOException
+    {
+        OutputStream out = connection.getOutputStream();
+        return limiter == null ? out : limiter.limit( out );
+    }
+
+    private void check( HttpURLConnection connection, String path )
+        throws IOException
+    {
+        int status = connection.getResponseCode();
+        if ( status < 200 || status >= 300 )
+        {
+            throw new StatusException( connection.getRequestMethod() + " " + url + path + " has failed with "
+                + status + " " + connection.getResponseMessage(), status );
+        }
+    }
+
+    /**
+     * A request which the server has answered with an error status.
+     */
+    static final class StatusException
+        extends IOException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        StatusException( String message, int status )
+        {
+            super( message );
+            this.status = status;
+        }
+
+        int getStatus()
+        {
+            return status;
+        }
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the files of released projects which a repository already has with exactly the same content, so a
+ * reproducible build does not upload them again. Before anything is uploaded the checksum files of all files are
+ * read from the repository in parallel ({@code .sha256} and {@code .sha1} if there is no {@code .sha256}) and compared
+ * to the digests of the local files. A project whose files are all identical is not deployed at all, the identical
+ * files of the other projects are skipped by the {@link FileRepositoryDeployer} and by the generic deployment, which
+ * then deploys the remaining files on their own. The files of a SNAPSHOT are never identical because every deployment
+ * gets a new timestamp.
+ */
+class IdenticalArtifacts
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( IdenticalArtifacts.class );
+
+    private static final String[] CHECKSUMS = { "sha256", "sha1" };
+
+    private final String name;
+
+    private final ChecksumCache checksumCache;
+
+    private final Set<String> identical = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger files = new AtomicInteger();
+
+    private final AtomicInteger failedFiles = new AtomicInteger();
+
+    private final AtomicInteger skippedFiles = new AtomicInteger();
+
+    private final AtomicLong skippedBytes = new AtomicLong();
+
+    private final AtomicInteger skippedProjects = new AtomicInteger();
+
+    /**
+     * @param name The name of the repository.
+     * @param checksumCache The digests of the local files.
+     */
+    IdenticalArtifacts( String name, ChecksumCache checksumCache )
+    {
+        this.name = name;
+        this.checksumCache = checksumCache;
+    }
+
+    /**
+     * Reads the checksums of the files of the given projects from the repository.
+     *
+     * @param remote The repository.
+     * @param threads The number of checksums which are read in parallel.
+     */
+    void fetch( final RepositoryTarget remote, List<MavenProject> projects, int threads, ThreadFactory threadFactory )
+    {
+        final List<String> paths = new ArrayList<>();
+        final List<File> localFiles = new ArrayList<>();
+        for ( MavenProject project : projects )
+        {
+            if ( project.getArtifact().isSnapshot() )
+            {
+                continue;
+            }
+            try
+            {
+                for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+                {
+                    paths.add( artifactFile.getPath( project.getArtifact().getBaseVersion() ) );
+                    localFiles.add( artifactFile.getFile() );
+                }
+            }
+            catch ( NoFileAssignedException e )
+            {
+                // The deployment of the project reports the problem.
+                LOGGER.debug( "{} has no file to compare.", project.getId() );
+            }
+        }
+        if ( paths.isEmpty() )
+        {
+            return;
+        }
+
+        long start = System.nanoTime();
+        files.addAndGet( paths.size() );
+        ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, paths.size() ), threadFactory );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<>( paths.size() );
+            for ( int i = 0; i < paths.size(); i++ )
+            {
+                final String path = paths.get( i );
+                final File file = localFiles.get( i );
+                futures.add( executor.submit( new Callable<Void>()
+                {
+                    @Override
+                    public Void call()
+                        throws IOException
+                    {
+                        if ( isIdentical( remote, path, checksumCache.get( file ) ) )
+                        {
+                            identical.add( path );
+                        }
+                        return null;
+                    }
+                } ) );
+            }
+            String firstFailure = null;
+            int failed = 0;
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                try
+                {
+                    futures.get( i ).get();
+                }
+                catch ( ExecutionException e )
+                {
+                    // Not knowing is not a reason to fail, the file is simply uploaded.
+                    LOGGER.debug( "Could not compare {} with {}: {}", paths.get( i ), name,
+                                  e.getCause().getMessage() );
+                    if ( failed++ == 0 )
+                    {
+                        firstFailure = e.getCause().getMessage();
+                    }
+                }
+            }
+            if ( failed > 0 )
+            {
+                failedFiles.addAndGet( failed );
+                LOGGER.warn( "{}: {} of {} files could not be compared with the repository and are uploaded, the"
+                    + " first failure: {}", name, failed, paths.size(), firstFailure );
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            LOGGER.warn( "Interrupted while comparing the files with {}. Everything is uploaded.", name );
+            identical.clear();
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        LOGGER.info( "{}: {} of {} files are identical in the repository ({} ms).", name, identical.size(),
+                     paths.size(), TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) );
+    }
+
+    /**
+     * @return {@code true} if the checksum file of the repository (the strongest one it has) matches the given digests.
+     */
+    private static boolean isIdentical( RepositoryTarget remote, String path, Checksums checksums )
+        throws IOException
+    {
+        for ( String algorithm : CHECKSUMS )
+        {
+            byte[] content = remote.read( path + '.' + algorithm );
+            if ( content != null )
+            {
+                // Some tools append the name of the file to the digest.
+                String[] tokens = new String( content, StandardCharsets.US_ASCII ).trim().split( "\\s+" );
+                return tokens[0].toLowerCase( Locale.ROOT ).equals( checksums.get( algorithm ) );
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return {@code true} if the repository has the given path with the same content.
+     */
+    boolean isIdentical( String path )
+    {
+        return identical.contains( path );
+    }
+
+    /**
+     * @return {@code true} if the repository has all files of the given project with the same content.
+     */
+    boolean isIdentical( MavenProject project )
+    {
+        if ( identical.isEmpty() || project.getArtifact().isSnapshot() )
+        {
+            return false;
+        }
+        try
+        {
+            for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+            {
+                if ( !isIdentical( artifactFile.getPath( project.getArtifact().getBaseVersion() ) ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch ( NoFileAssignedException e )
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Records a file which has not been uploaded because the repository has it already.
+     */
+    void skipped( File file )
+    {
+        skippedFiles.incrementAndGet();
+        skippedBytes.addAndGet( file.length() );
+    }
+
+    /**
+     * Records a project which has not been deployed because the repository has all of its files already.
+     */
+    void skipped( MavenProject project )
+        throws NoFileAssignedException
+    {
+        skippedProjects.incrementAndGet();
+        for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+        {
+            skipped( artifactFile.getFile() );
+        }
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return The number of files which have been compared.
+     */
+    int getFiles()
+    {
+        return files.get();
+    }
+
+    /**
+     * @return The number of files whose checksum could not be read from the repository.
+     */
+    int getFailedFiles()
+    {
+        return failedFiles.get();
+    }
+
+    int getSkippedFiles()
+    {
+        return skippedFiles.get();
+    }
+
+    long getSkippedBytes()
+    {
+        return skippedBytes.get();
+    }
+
+    int getSkippedProjects()
+    {
+        return skippedProjects.get();
+    }
+
+}
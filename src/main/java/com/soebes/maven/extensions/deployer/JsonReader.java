@@ -0,0 +1,246 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal reader for the JSON files the extension has written itself with the {@link JsonWriter}. Objects are read
+ * into a {@link Map}, arrays into a {@link List}, numbers into a {@link Double}, and {@code true}, {@code false} and
+ * {@code null} into the corresponding Java values.
+ */
+final class JsonReader
+{
+    private final String json;
+
+    private int position;
+
+    private JsonReader( String json )
+    {
+        this.json = json;
+    }
+
+    static Object read( String json )
+        throws IOException
+    {
+        JsonReader reader = new JsonReader( json );
+        Object value = reader.value();
+        reader.skipWhitespace();
+        if ( reader.position != json.length() )
+        {
+            throw reader.error( "Unexpected content" );
+        }
+        return value;
+    }
+
+    private Object value()
+        throws IOException
+    {
+        skipWhitespace();
+        if ( position >= json.length() )
+        {
+            throw error( "Unexpected end" );
+        }
+        char c = json.charAt( position );
+        switch ( c )
+        {
+            case '{':
+                return object();
+            case '[':
+                return array();
+            case '"':
+                return string();
+            case 't':
+                return literal( "true", Boolean.TRUE );
+            case 'f':
+                return literal( "false", Boolean.FALSE );
+            case 'n':
+                return literal( "null", null );
+            default:
+                return number();
+        }
+    }
+
+    private Map<String, Object> object()
+        throws IOException
+    {
+        Map<String, Object> result = new LinkedHashMap<>();
+        position++;
+        skipWhitespace();
+        if ( peek( '}' ) )
+        {
+            return result;
+        }
+        do
+        {
+            skipWhitespace();
+            String name = string();
+            skipWhitespace();
+            expect( ':' );
+            result.put( name, value() );
+            skipWhitespace();
+        }
+        while ( peek( ',' ) );
+        expect( '}' );
+        return result;
+    }
+
+    private List<Object> array()
+        throws IOException
+    {
+        List<Object> result = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if ( peek( ']' ) )
+        {
+            return result;
+        }
+        do
+        {
+            result.add( value() );
+            skipWhitespace();
+        }
+        while ( peek( ',' ) );
+        expect( ']' );
+        return result;
+    }
+
+    private String string()
+        throws IOException
+    {
+        expect( '"' );
+        StringBuilder result = new StringBuilder();
+        while ( position < json.length() )
+        {
+            char c = json.charAt( position++ );
+            if ( c == '"' )
+            {
+                return result.toString();
+            }
+            if ( c != '\\' )
+            {
+                result.append( c );
+                continue;
+            }
+            if ( position >= json.length() )
+            {
+                break;
+            }
+            char escaped = json.charAt( position++ );
+            switch ( escaped )
+            {
+                case 'n':
+                    result.append( '\n' );
+                    break;
+                case 'r':
+                    result.append( '\r' );
+                    break;
+                case 't':
+                    result.append( '\t' );
+                    break;
+                case 'b':
+                    result.append( '\b' );
+                    break;
+                case 'f':
+                    result.append( '\f' );
+                    break;
+                case 'u':
+                    if ( position + 4 > json.length() )
+                    {
+                        throw error( "Invalid escape" );
+                    }
+                    result.append( (char) Integer.parseInt( json.substring( position, position + 4 ), 16 ) );
+                    position += 4;
+                    break;
+                default:
+                    result.append( escaped );
+                    break;
+            }
+        }
+        throw error( "Unterminated string" );
+    }
+
+    private Double number()
+        throws IOException
+    {
+        int start = position;
+        while ( position < json.length() && "+-0123456789.eE".indexOf( json.charAt( position ) ) >= 0 )
+        {
+            position++;
+        }
+        try
+        {
+            return Double.valueOf( json.substring( start, position ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            position = start;
+            throw error( "Invalid value" );
+        }
+    }
+
+    private Object literal( String literal, Object value )
+        throws IOException
+    {
+        if ( !json.startsWith( literal, position ) )
+        {
+            throw error( "Invalid value" );
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private boolean peek( char c )
+    {
+        if ( position < json.length() && json.charAt( position ) == c )
+        {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect( char c )
+        throws IOException
+    {
+        if ( !peek( c ) )
+        {
+            throw error( "Expected '" + c + "'" );
+        }
+    }
+
+    private void skipWhitespace()
+    {
+        while ( position < json.length() && Character.isWhitespace( json.charAt( position ) ) )
+        {
+            position++;
+        }
+    }
+
+    private IOException error( String message )
+    {
+        return new IOException( message + " at position " + position );
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * A minimal writer for the JSON report of the extension. Maven does not export a JSON library to extensions and the
+ * report only consists of objects, arrays, strings and numbers, so it is written by hand.
+ */
+final class JsonWriter
+{
+    private final Writer writer;
+
+    /**
+     * One entry per open object or array which tells whether a value has already been written into it.
+     */
+    private final Deque<Boolean> scopes = new ArrayDeque<>();
+
+    private boolean afterName;
+
+    JsonWriter( Writer writer )
+    {
+        this.writer = writer;
+    }
+
+    JsonWriter beginObject()
+        throws IOException
+    {
+        return open( '{' );
+    }
+
+    JsonWriter endObject()
+        throws IOException
+    {
+        return close( '}' );
+    }
+
+    JsonWriter beginArray()
+        throws IOException
+    {
+        return open( '[' );
+    }
+
+    JsonWriter endArray()
+        throws IOException
+    {
+        return close( ']' );
+    }
+
+    JsonWriter name( String name )
+        throws IOException
+    {
+        separate();
+        string( name );
+        writer.write( ": " );
+        afterName = true;
+        return this;
+    }
+
+    JsonWriter value( String value )
+        throws IOException
+    {
+        separate();
+        if ( value == null )
+        {
+            writer.write( "null" );
+        }
+        else
+        {
+            string( value );
+        }
+        return this;
+    }
+
+    JsonWriter value( long value )
+        throws IOException
+    {
+        separate();
+        writer.write( Long.toString( value ) );
+        return this;
+    }
+
+    JsonWriter value( double value )
+        throws IOException
+    {
+        separate();
+        writer.write( Double.isNaN( value ) || Double.isInfinite( value ) ? "null"
+                        : String.format( Locale.ROOT, "%.3f", value ) );
+        return this;
+    }
+
+    JsonWriter value( boolean value )
+        throws IOException
+    {
+        separate();
+        writer.write( Boolean.toString( value ) );
+        return this;
+    }
+
+    private JsonWriter open( char bracket )
+        throws IOException
+    {
+        separate();
+        writer.write( bracket );
+        scopes.push( Boolean.FALSE );
+        return this;
+    }
+
+    private JsonWriter close( char bracket )
+        throws IOException
+    {
+        boolean empty = !scopes.pop();
+        if ( !empty )
+        {
+            newLine();
+        }
+        writer.write( bracket );
+        if ( scopes.isEmpty() )
+        {
+            writer.write( System.lineSeparator() );
+        }
+        return this;
+    }
+
+    /**
+     * Writes the comma and the indentation before a value unless the value belongs to a name.
+     */
+    private void separate()
+        throws IOException
+    {
+        if ( afterName )
+        {
+            afterName = false;
+            return;
+        }
+        if ( scopes.isEmpty() )
+        {
+            return;
+        }
+        if ( scopes.peek() )
+        {
+            writer.write( ',' );
+        }
+        else
+        {
+            scopes.pop();
+            scopes.push( Boolean.TRUE );
+        }
+        newLine();
+    }
+
+    private void newLine()
+        throws IOException
+    {
+        writer.write( System.lineSeparator() );
+        for ( int i = 0; i < scopes.size(); i++ )
+        {
+            writer.write( "  " );
+        }
+    }
+
+    private void string( String value )
+        throws IOException
+    {
+        writer.write( '"' );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            switch ( c )
+            {
+                case '"':
+                    writer.write( "\\\"" );
+                    break;
+                case '\\':
+                    writer.write( "\\\\" );
+                    break;
+                case '\n':
+                    writer.write( "\\n" );
+                    break;
+                case '\r':
+                    writer.write( "\\r" );
+                    break;
+                case '\t':
+                    writer.write( "\\t" );
+                    break;
+                default:
+                    if ( c < 0x20 )
+                    {
+                        writer.write( String.format( "\\u%04x", (int) c ) );
+                    }
+                    else
+                    {
+                        writer.write( c );
+                    }
+                    break;
+            }
+        }
+        writer.write( '"' );
+    }
+
+}
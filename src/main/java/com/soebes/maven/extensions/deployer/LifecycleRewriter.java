@@ -0,0 +1,128 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.model.Plugin;
+import org.apache.maven.model.PluginExecution;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Removes goals of plugins (for example {@code maven-deploy-plugin:deploy}) from the lifecycle of all projects. All
+ * goals are removed in a single pass over the projects, their build plugins and executions.
+ */
+class LifecycleRewriter
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( LifecycleRewriter.class );
+
+    private final List<Target> targets = new ArrayList<>();
+
+    /**
+     * Deactivates the given goal of the given plugin.
+     */
+    LifecycleRewriter deactivate( String groupId, String artifactId, String goal )
+    {
+        targets.add( new Target( groupId, artifactId, goal ) );
+        return this;
+    }
+
+    /**
+     * Removes the goals from all given projects.
+     */
+    void rewrite( List<MavenProject> projects )
+    {
+        boolean debug = LOGGER.isDebugEnabled();
+        for ( MavenProject mavenProject : projects )
+        {
+            for ( Plugin plugin : mavenProject.getBuildPlugins() )
+            {
+                if ( debug )
+                {
+                    LOGGER.debug( "Plugin: {}", plugin.getId() );
+                    for ( PluginExecution pluginExecution : plugin.getExecutions() )
+                    {
+                        LOGGER.debug( "  -> {}", pluginExecution.getGoals() );
+                    }
+                }
+
+                // Plugin.getKey() creates a new String on every call in recent Maven versions.
+                Target target = find( plugin );
+                if ( target == null )
+                {
+                    continue;
+                }
+                for ( PluginExecution pluginExecution : plugin.getExecutions() )
+                {
+                    if ( pluginExecution.getGoals().contains( target.goal ) )
+                    {
+                        pluginExecution.removeGoal( target.goal );
+                        target.deactivated = true;
+                    }
+                }
+            }
+        }
+
+        for ( Target target : targets )
+        {
+            if ( target.deactivated )
+            {
+                LOGGER.warn( "{}:{} has been deactivated.", target.key, target.goal );
+            }
+        }
+    }
+
+    private Target find( Plugin plugin )
+    {
+        for ( Target target : targets )
+        {
+            if ( target.artifactId.equals( plugin.getArtifactId() ) && target.groupId.equals( plugin.getGroupId() ) )
+            {
+                return target;
+            }
+        }
+        return null;
+    }
+
+    private static final class Target
+    {
+        private final String groupId;
+
+        private final String artifactId;
+
+        private final String goal;
+
+        private final String key;
+
+        private boolean deactivated;
+
+        Target( String groupId, String artifactId, String goal )
+        {
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.goal = goal;
+            this.key = groupId + ':' + artifactId;
+        }
+    }
+
+}
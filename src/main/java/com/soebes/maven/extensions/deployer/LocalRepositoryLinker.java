@@ -0,0 +1,217 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.apache.maven.shared.transfer.repository.RepositoryManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Places the artifacts of a project into the local repository before the installer runs, so the bytes are not
+ * written a second time. The file is hard linked if the local repository is on the same file system, otherwise it is
+ * cloned (copy-on-write) on file systems which support that. The installer skips files which have the same size and
+ * modification time as the source, so it only writes the metadata. If neither works the installer copies the file
+ * as usual. Afterwards every file in the local repository is verified against the digest of its source.
+ */
+class LocalRepositoryLinker
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( LocalRepositoryLinker.class );
+
+    enum Method
+    {
+        LINK, REFLINK, COPY
+    }
+
+    private final RepositoryManager repositoryManager;
+
+    private final ChecksumCache checksumCache;
+
+    private final boolean reflinkSupported;
+
+    LocalRepositoryLinker( RepositoryManager repositoryManager, ChecksumCache checksumCache )
+    {
+        this.repositoryManager = repositoryManager;
+        this.checksumCache = checksumCache;
+        this.reflinkSupported = System.getProperty( "os.name", "" ).toLowerCase( Locale.ENGLISH ).contains( "linux" );
+    }
+
+    /**
+     * Places the files of the given project into the local repository.
+     * 
+     * @return The files which have to be verified after the installation.
+     */
+    List<PlacedFile> place( ProjectBuildingRequest buildingRequest, MavenProject project )
+        throws IOException, NoFileAssignedException
+    {
+        File basedir = repositoryManager.getLocalRepositoryBasedir( buildingRequest );
+        List<PlacedFile> result = new ArrayList<PlacedFile>();
+        for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+        {
+            // The installer always copies pom files.
+            if ( "pom".equals( artifactFile.getExtension() ) )
+            {
+                continue;
+            }
+            File source = artifactFile.getFile();
+            File target =
+                new File( basedir, repositoryManager.getPathForLocalArtifact( buildingRequest,
+                                                                              artifactFile.getArtifact() ) );
+            result.add( new PlacedFile( source, target, place( source, target ) ) );
+        }
+        return result;
+    }
+
+    /**
+     * Checks that the files in the local repository have the same content as their sources.
+     */
+    void verify( List<PlacedFile> placedFiles )
+        throws IOException
+    {
+        for ( PlacedFile placedFile : placedFiles )
+        {
+            if ( placedFile.method == Method.LINK && Files.isSameFile( placedFile.source.toPath(),
+                                                                      placedFile.target.toPath() ) )
+            {
+                continue;
+            }
+            String expected = checksumCache.get( placedFile.source ).getSha1();
+            String actual = ChecksumCalculator.calculate( placedFile.target ).getSha1();
+            if ( !expected.equals( actual ) )
+            {
+                throw new IOException( "The installed file " + placedFile.target + " differs from "
+                    + placedFile.source + " (sha1 " + actual + " instead of " + expected + ")." );
+            }
+        }
+    }
+
+    private Method place( File source, File target )
+        throws IOException
+    {
+        if ( target.exists() && Files.isSameFile( source.toPath(), target.toPath() ) )
+        {
+            return Method.LINK;
+        }
+
+        Files.createDirectories( target.getParentFile().toPath() );
+        File temporary = AtomicFiles.temporaryFile( target );
+        Files.deleteIfExists( temporary.toPath() );
+        try
+        {
+            Method method = null;
+            if ( link( source, temporary ) )
+            {
+                method = Method.LINK;
+            }
+            else if ( reflink( source, temporary ) )
+            {
+                method = Method.REFLINK;
+            }
+
+            if ( method == null )
+            {
+                return Method.COPY;
+            }
+            AtomicFiles.move( temporary, target );
+            LOGGER.debug( "{} {} to {}", method, source, target );
+            return method;
+        }
+        finally
+        {
+            Files.deleteIfExists( temporary.toPath() );
+        }
+    }
+
+    private boolean link( File source, File target )
+    {
+        try
+        {
+            Files.createLink( target.toPath(), source.toPath() );
+            return true;
+        }
+        catch ( IOException | UnsupportedOperationException e )
+        {
+            LOGGER.debug( "Could not link {}: {}", source, e.getMessage() );
+            return false;
+        }
+    }
+
+    /**
+     * Java has no API to clone a file, so this uses {@code cp --reflink=always} which fails (instead of copying) if
+     * the file system does not support it. The timestamps are preserved, so the installer skips the file.
+     */
+    private boolean reflink( File source, File target )
+    {
+        if ( !reflinkSupported )
+        {
+            return false;
+        }
+        try
+        {
+            Process process = new ProcessBuilder( "cp", "--reflink=always", "--preserve=timestamps",
+                                                  source.getAbsolutePath(), target.getAbsolutePath() )
+                .redirectErrorStream( true ).start();
+            process.getInputStream().close();
+            return process.waitFor() == 0;
+        }
+        catch ( IOException e )
+        {
+            LOGGER.debug( "Could not clone {}: {}", source, e.getMessage() );
+            return false;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+
+    static final class PlacedFile
+    {
+        private final File source;
+
+        private final File target;
+
+        private final Method method;
+
+        PlacedFile( File source, File target, Method method )
+        {
+            this.source = source;
+            this.target = target;
+            this.method = method;
+        }
+
+        Method getMethod()
+        {
+            return method;
+        }
+    }
+
+}
@@ -19,22 +19,41 @@ package com.soebes.maven.extensions.deployer;
  * under the License.
  */
 
+import java.io.File;
 import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 import javax.inject.Named;
 import javax.inject.Singleton;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.eventspy.AbstractEventSpy;
 import org.apache.maven.eventspy.EventSpy;
 import org.apache.maven.execution.ExecutionEvent;
 import org.apache.maven.execution.ExecutionEvent.Type;
-import org.apache.maven.model.Plugin;
-import org.apache.maven.model.PluginExecution;
+import org.apache.maven.execution.ProjectDependencyGraph;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuildingRequest;
+import org.apache.maven.shared.transfer.artifact.deploy.ArtifactDeployer;
 import org.apache.maven.shared.transfer.artifact.deploy.ArtifactDeployerException;
 import org.apache.maven.shared.transfer.artifact.install.ArtifactInstallerException;
 import org.apache.maven.shared.transfer.project.NoFileAssignedException;
@@ -42,6 +61,8 @@ import org.apache.maven.shared.transfer.project.deploy.ProjectDeployer;
 import org.apache.maven.shared.transfer.project.deploy.ProjectDeployerRequest;
 import org.apache.maven.shared.transfer.project.install.ProjectInstaller;
 import org.apache.maven.shared.transfer.project.install.ProjectInstallerRequest;
+import org.apache.maven.shared.transfer.repository.RepositoryManager;
+import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -62,14 +83,63 @@ public class MavenDeployer
     @Inject
     private ProjectDeployer projectDeployer;
 
+    @Inject
+    private ArtifactDeployer artifactDeployer;
+
     @Inject
     private ProjectInstaller projectInstaller;
 
-    private boolean failure;
+    @Inject
+    private RepositoryManager repositoryManager;
+
+    /**
+     * The outcome of every project. Written concurrently by the threads of a parallel build ({@code -T}).
+     */
+    private final ProjectOutcomes outcomes;
+
+    private StagingArea stagingArea;
+
+    private ChecksumCache checksumCache;
+
+    private TransferMetrics transferMetrics;
+
+    private DistributionRepositories distributionRepositories;
+
+    /**
+     * The throughput of the previous run for the estimates of a dry run. Read at the start of the session, before a
+     * {@code clean} removes the previous report.
+     */
+    private Throughput previousThroughput;
+
+    /**
+     * The bandwidth limiters of the deployment by the key of the repository.
+     */
+    private Map<String, BandwidthLimiter> bandwidthLimiters;
+
+    /**
+     * Retries the failed deployments.
+     */
+    private RetryPolicy retryPolicy;
+
+    /**
+     * Retries the projects which have failed on the generic transfer stack.
+     */
+    private RetryPolicy projectRetryPolicy;
+
+    /**
+     * Runs the hedged uploads of all repositories or {@code null} if the uploads are not hedged.
+     */
+    private ExecutorService hedgeExecutor;
+
+    /**
+     * The journal of the deployment or {@code null} if none is kept. For a resumed deployment it is read at the start
+     * of the session, before a {@code clean} removes it.
+     */
+    private DeployJournal journal;
 
     public MavenDeployer()
     {
-        this.failure = false;
+        this.outcomes = new ProjectOutcomes();
     }
 
     @Override
@@ -124,12 +194,17 @@ public class MavenDeployer
             case ProjectDiscoveryStarted:
                 break;
             case SessionStarted:
+                outcomes.begin( executionEvent.getSession().getProjects() );
                 sessionStarted( executionEvent );
                 break;
             case SessionEnded:
-                if ( this.failure )
+                if ( outcomes.isFailure() )
                 {
                     LOGGER.warn( "The Maven Deployer Extension will not be called based on previous errors." );
+                    LOGGER.info( "{} projects failed, {} skipped, {} succeeded.",
+                                 outcomes.count( ProjectOutcomes.Outcome.FAILED ),
+                                 outcomes.count( ProjectOutcomes.Outcome.SKIPPED ),
+                                 outcomes.count( ProjectOutcomes.Outcome.SUCCEEDED ) );
                 }
                 else
                 {
@@ -142,7 +217,18 @@ public class MavenDeployer
             case ProjectFailed:
                 // TODO: Can we find out more about the cause of failure?
                 LOGGER.debug( "Some failure has occurred." );
-                this.failure = true;
+                outcomes.failed( executionEvent.getProject() );
+                if ( stagingArea != null )
+                {
+                    stagingArea.discard();
+                }
+                break;
+            case ProjectSucceeded:
+                outcomes.succeeded( executionEvent.getProject() );
+                if ( stagingArea != null )
+                {
+                    stagingArea.stage( executionEvent.getProject() );
+                }
                 break;
 
             case ForkStarted:
@@ -153,8 +239,9 @@ public class MavenDeployer
             case MojoSucceeded:
             case MojoSkipped:
             case ProjectStarted:
-            case ProjectSucceeded:
+                break;
             case ProjectSkipped:
+                outcomes.skipped( executionEvent.getProject() );
                 break;
 
             default:
@@ -171,197 +258,954 @@ public class MavenDeployer
      */
     private void sessionEnded( ExecutionEvent executionEvent )
     {
+        long start = System.nanoTime();
         logDeployerVersion();
 
-        if ( goalsContain( executionEvent, "install" ) )
+        if ( stagingArea != null )
+        {
+            try
+            {
+                stagingArea.promote();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                LOGGER.error( "Interrupted while waiting for the staging of the artifacts." );
+                return;
+            }
+        }
+
+        DeployerConfiguration configuration = new DeployerConfiguration( executionEvent.getSession() );
+        try
+        {
+            if ( configuration.isDryRun()
+                && ( goalsContain( executionEvent, "install" ) || goalsContain( executionEvent, "deploy" ) ) )
+            {
+                writePlan( executionEvent, configuration, goalsContain( executionEvent, "deploy" ) );
+            }
+            else if ( goalsContain( executionEvent, "install" ) )
+            {
+                installArtifacts( executionEvent, configuration );
+            } else if ( goalsContain( executionEvent, "deploy" ) )
+            {
+                installArtifacts( executionEvent, configuration );
+                LOGGER.info( "" );
+                LOGGER.info( "Deploying artifacts..." );
+                deployProjects( executionEvent, configuration );
+            }
+            else
+            {
+                LOGGER.info( " Deployment has been skipped." );
+            }
+        }
+        finally
+        {
+            transferMetrics.time( TransferMetrics.SESSION_ENDED, System.nanoTime() - start );
+            writeReport( executionEvent, configuration );
+            if ( stagingArea != null )
+            {
+                stagingArea.cleanUp();
+            }
+            checksumCache.clear();
+        }
+    }
+
+    private void writeReport( ExecutionEvent executionEvent, DeployerConfiguration configuration )
+    {
+        if ( transferMetrics.isEmpty() )
         {
-            installArtifacts( executionEvent );
-        } else if ( goalsContain( executionEvent, "deploy" ) )
+            return;
+        }
+        File reportFile = configuration.getReportFile();
+        try
         {
-            installArtifacts( executionEvent );
-            LOGGER.info( "" );
-            LOGGER.info( "Deploying artifacts..." );
-            deployProjects( executionEvent );
+            int projects = executionEvent.getSession().getProjectDependencyGraph().getSortedProjects().size();
+            new DeployReport( transferMetrics, projects ).write( reportFile );
+            LOGGER.info( "The deploy report has been written to {}", reportFile );
         }
-        else
+        catch ( IOException e )
         {
-            LOGGER.info( " Deployment has been skipped." );
+            LOGGER.warn( "Could not write the deploy report {}: {}", reportFile, e.getMessage() );
         }
     }
 
-    private void installArtifacts( ExecutionEvent executionEvent )
+    /**
+     * Writes what would be installed and deployed without transferring anything.
+     */
+    private void writePlan( ExecutionEvent executionEvent, DeployerConfiguration configuration, boolean deploy )
+    {
+        LOGGER.info( "" );
+        LOGGER.info( "Planning the installation{} (dry run)...", deploy ? " and deployment" : "" );
+        List<MavenProject> sortedProjects = executionEvent.getSession().getProjectDependencyGraph().getSortedProjects();
+        DeployPlan plan = new DeployPlan( previousThroughput );
+
+        int installThreads = configuration.getInstallThreads();
+        plan.add( TransferMetrics.INSTALL, executionEvent.getSession().getLocalRepository(),
+                  schedule( sortedProjects, installThreads, configuration ), installThreads,
+                  installThreads > 1 ? configuration.getSchedule() : "reactor",
+                  configuration.isLinkInstall() ? "link" : "copy" );
+        if ( deploy )
+        {
+            for ( RepositoryGroup group : distributionRepositories.group( sortedProjects ) )
+            {
+                ArtifactRepository repository = group.getRepository();
+                int threads = repository == null ? 1 : configuration.getDeployThreads( repository.getId() );
+                String transfer = "generic";
+                if ( configuration.isBundleDeploy() && repository != null
+                    && BundleDeployer.canDeploy( repository, configuration.getBundleUrl( repository.getId() ) ) )
+                {
+                    transfer = "bundle";
+                }
+                else if ( configuration.isBundleDeploy() && HttpRepository.isHttp( repository ) )
+                {
+                    LOGGER.warn( "{} can't take a bundle without {}.{}, its deployment would fail.", group,
+                                 DeployerConfiguration.DEPLOY_BUNDLE_URL, repository.getId() );
+                    transfer = "none";
+                }
+                else if ( configuration.isFastPath() && FileRepositoryDeployer.basedir( repository ) != null )
+                {
+                    transfer = "fastPath";
+                }
+                plan.add( TransferMetrics.DEPLOY, repository, schedule( group.getProjects(), threads, configuration ),
+                          threads, threads > 1 ? configuration.getSchedule() : "reactor", transfer );
+            }
+        }
+
+        long estimate = plan.getEstimatedNanos();
+        LOGGER.info( "Dry run: {} files ({} bytes) would be transferred, {}.", plan.getFiles(), plan.getBytes(),
+                     estimate < 0 ? "no estimate without the report of an earlier run"
+                                     : "estimated " + TimeUnit.NANOSECONDS.toMillis( estimate ) + " ms" );
+        File planFile = configuration.getPlanFile();
+        try
+        {
+            plan.write( planFile );
+            LOGGER.info( "The plan has been written to {}", planFile );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.warn( "Could not write the plan {}: {}", planFile, e.getMessage() );
+        }
+    }
+
+    /**
+     * @return The projects in the order they are handed to the given number of workers.
+     */
+    private List<MavenProject> schedule( List<MavenProject> projects, int threads,
+                                         DeployerConfiguration configuration )
+    {
+        if ( threads > 1 && configuration.isLargestFirst() )
+        {
+            return SizeSchedule.largestFirst( projects );
+        }
+        return projects;
+    }
+
+    /**
+     * @return The factory of the workers of the given work: virtual threads on Java 21 and later unless
+     *         {@code deployer.virtualThreads} is {@code false}, otherwise platform threads.
+     */
+    private ThreadFactory threadFactory( String name, DeployerConfiguration configuration )
+    {
+        boolean virtual = configuration.isVirtualThreads() && WorkerThreads.isVirtualAvailable();
+        LOGGER.debug( "The workers to {} are {} threads.", name, virtual ? "virtual" : "platform" );
+        return WorkerThreads.newThreadFactory( name, virtual );
+    }
+
+    private void installArtifacts( ExecutionEvent executionEvent, DeployerConfiguration configuration )
     {
         LOGGER.info( "" );
         LOGGER.info( "Installing artifacts..." );
-        installProjects( executionEvent );
+        installProjects( executionEvent, configuration );
     }
 
     private void sessionStarted( ExecutionEvent executionEvent )
     {
-        if ( containsLifeCycleDeployPluginGoal( executionEvent, "deploy" ) )
+        long start = System.nanoTime();
+        transferMetrics = new TransferMetrics();
+
+        new LifecycleRewriter().deactivate( "org.apache.maven.plugins", "maven-deploy-plugin", "deploy" )
+                               .deactivate( "org.apache.maven.plugins", "maven-install-plugin", "install" )
+                               .rewrite( executionEvent.getSession().getProjectDependencyGraph().getSortedProjects() );
+
+        // Shared by everything which needs the digest of an artifact, so every file is read only once.
+        checksumCache = new ChecksumCache();
+        distributionRepositories = new DistributionRepositories( executionEvent.getSession().getTopLevelProject() );
+
+        DeployerConfiguration configuration = new DeployerConfiguration( executionEvent.getSession() );
+        if ( configuration.isPipeline()
+            && ( goalsContain( executionEvent, "install" ) || goalsContain( executionEvent, "deploy" ) ) )
         {
-            removeDeployPluginFromLifeCycle( executionEvent );
+            LOGGER.info( "The artifacts will be staged as soon as a project has been built successfully." );
+            stagingArea = new StagingArea( checksumCache );
         }
+        previousThroughput = configuration.isDryRun() ? Throughput.read( configuration.getReportFile() ) : null;
+        journal = configuration.isResume() ? DeployJournal.read( configuration.getJournalFile() )
+                        : configuration.isJournal() ? DeployJournal.empty() : null;
+
+        transferMetrics.time( TransferMetrics.SESSION_STARTED, System.nanoTime() - start );
+    }
+
+    private void deployProjects( ExecutionEvent executionEvent, DeployerConfiguration configuration )
+    {
+        List<MavenProject> sortedProjects = executionEvent.getSession().getProjectDependencyGraph().getSortedProjects();
+        List<RepositoryGroup> groups = distributionRepositories.group( sortedProjects );
+        bandwidthLimiters = bandwidthLimiters( groups, configuration );
+        retryPolicy = configuration.getRetryPolicy();
+        projectRetryPolicy = configuration.getProjectRetryPolicy();
+        hedgeExecutor = configuration.getDeployHedge() > 0
+                        ? Executors.newCachedThreadPool( threadFactory( "hedge", configuration ) )
+                        : null;
 
-        if ( containsLifeCycleInstallPluginGoal( executionEvent, "install" ) )
+        ProjectBuildingRequest projectBuildingRequest = transferMetrics.attach(
+            configureSession( executionEvent.getSession().getProjectBuildingRequest(), groups, configuration ) );
+
+        FileRepositoryDeployer fileRepositoryDeployer = configuration.isFastPath()
+                        ? new FileRepositoryDeployer( checksumCache, executionEvent.getSession().getStartTime(),
+                                                      transferMetrics )
+                        : null;
+        BundleDeployer bundleDeployer = configuration.isBundleDeploy()
+                        ? new BundleDeployer( checksumCache, executionEvent.getSession().getStartTime(),
+                                              transferMetrics )
+                        : null;
+        File bundleDirectory =
+            new File( executionEvent.getSession().getTopLevelProject().getBuild().getDirectory(), "deployer-bundle" );
+
+        Map<MavenProject, List<MavenProject>> upstreams = configuration.isDependencyOrder()
+                        ? upstreams( executionEvent.getSession().getProjectDependencyGraph(), sortedProjects )
+                        : null;
+
+        if ( journal != null )
+        {
+            File journalFile = configuration.getJournalFile();
+            try
+            {
+                journal.begin( journalFile, sessionId( executionEvent ) );
+            }
+            catch ( IOException e )
+            {
+                LOGGER.warn( "Could not write the deploy journal {}: {}. The deployment can't be resumed.",
+                             journalFile, e.getMessage() );
+            }
+        }
+
+        long start = System.nanoTime();
+        ExecutionSummary summary;
+        try
         {
-            removeInstallPluginFromLifeCycle( executionEvent );
+            summary = deployGroups( groups, projectBuildingRequest, fileRepositoryDeployer, bundleDeployer,
+                                    bundleDirectory, upstreams, configuration );
         }
+        finally
+        {
+            if ( journal != null )
+            {
+                journal.close();
+            }
+            if ( hedgeExecutor != null )
+            {
+                hedgeExecutor.shutdownNow();
+            }
+        }
+        transferMetrics.time( TransferMetrics.DEPLOY, System.nanoTime() - start );
+        logBandwidth();
+
+        reportSummary( executionEvent, "Deployed", summary );
     }
 
-    private boolean containsLifeCycleDeployPluginGoal( ExecutionEvent executionEvent, String goal )
+    /**
+     * @return The upstream projects of every project including its parent, if the parent is part of the reactor.
+     */
+    private Map<MavenProject, List<MavenProject>> upstreams( ProjectDependencyGraph graph,
+                                                             List<MavenProject> projects )
     {
-        return containsLifeCyclePluginGoals( executionEvent, "org.apache.maven.plugins", "maven-deploy-plugin", goal );
+        Map<String, MavenProject> byId = new HashMap<>();
+        for ( MavenProject project : projects )
+        {
+            byId.put( project.getId(), project );
+        }
+        Map<MavenProject, List<MavenProject>> result = new HashMap<>();
+        for ( MavenProject project : projects )
+        {
+            List<MavenProject> upstreams = new ArrayList<>( graph.getUpstreamProjects( project, false ) );
+            MavenProject parent = project.getParent() == null ? null : byId.get( project.getParent().getId() );
+            if ( parent != null && !upstreams.contains( parent ) )
+            {
+                upstreams.add( parent );
+            }
+            result.put( project, upstreams );
+        }
+        return result;
     }
 
-    private boolean containsLifeCycleInstallPluginGoal( ExecutionEvent executionEvent, String goal )
+    /**
+     * @return The bandwidth limiter of every repository by the key of its group. The limiter of a repository without a
+     *         limit of its own is the one for all repositories (if there is one).
+     */
+    private Map<String, BandwidthLimiter> bandwidthLimiters( List<RepositoryGroup> groups,
+                                                             DeployerConfiguration configuration )
     {
-        return containsLifeCyclePluginGoals( executionEvent, "org.apache.maven.plugins", "maven-install-plugin", goal );
+        Map<String, BandwidthLimiter> result = new HashMap<>();
+        long bandwidth = configuration.getDeployBandwidth();
+        BandwidthLimiter all = bandwidth > 0 ? new BandwidthLimiter( "all repositories", bandwidth, null ) : null;
+        for ( RepositoryGroup group : groups )
+        {
+            if ( group.getRepository() == null )
+            {
+                continue;
+            }
+            long repositoryBandwidth = configuration.getDeployBandwidth( group.getRepository().getId() );
+            BandwidthLimiter limiter =
+                repositoryBandwidth > 0 ? new BandwidthLimiter( group.getKey(), repositoryBandwidth, all ) : all;
+            if ( limiter != null )
+            {
+                result.put( group.getKey(), limiter );
+            }
+        }
+        return result;
     }
 
-    private void removeDeployPluginFromLifeCycle( ExecutionEvent executionEvent )
+    private void logBandwidth()
     {
-        removePluginFromLifeCycle( executionEvent, "org.apache.maven.plugins", "maven-deploy-plugin", "deploy" );
+        Set<BandwidthLimiter> limiters = new LinkedHashSet<>();
+        for ( BandwidthLimiter limiter : bandwidthLimiters.values() )
+        {
+            limiters.add( limiter );
+            if ( limiter.getParent() != null )
+            {
+                limiters.add( limiter.getParent() );
+            }
+        }
+        for ( BandwidthLimiter limiter : limiters )
+        {
+            LOGGER.info( "{}: the uploads have been held back {} ms in total to stay below {} bytes/s.",
+                         limiter.getName(), TimeUnit.NANOSECONDS.toMillis( limiter.getWaitNanos() ),
+                         limiter.getBytesPerSecond() );
+        }
     }
 
-    private void removeInstallPluginFromLifeCycle( ExecutionEvent executionEvent )
+    /**
+     * Gives every repository a connection pool of its own size. The HTTP transport keeps the pools in the repository
+     * session, so a connection is reused by all deployments into the same repository. The uploads into repositories
+     * with a bandwidth limit are throttled by a {@link ThrottlingTransferListener}.
+     */
+    private ProjectBuildingRequest configureSession( ProjectBuildingRequest request, List<RepositoryGroup> groups,
+                                                     DeployerConfiguration configuration )
     {
-        removePluginFromLifeCycle( executionEvent, "org.apache.maven.plugins", "maven-install-plugin", "install" );
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession( request.getRepositorySession() );
+        session.setConfigProperty( "aether.connector.http.reuseConnections", true );
+        for ( RepositoryGroup group : groups )
+        {
+            if ( group.getRepository() != null )
+            {
+                String id = group.getRepository().getId();
+                session.setConfigProperty( "aether.connector.http.maxConnectionsPerRoute." + id,
+                                           configuration.getDeployConnections( id ) );
+            }
+        }
+        if ( !bandwidthLimiters.isEmpty() )
+        {
+            Map<String, BandwidthLimiter> byUrl = new HashMap<>();
+            for ( RepositoryGroup group : groups )
+            {
+                BandwidthLimiter limiter = bandwidthLimiters.get( group.getKey() );
+                if ( limiter != null )
+                {
+                    byUrl.put( ThrottlingTransferListener.normalize( group.getRepository().getUrl() ), limiter );
+                }
+            }
+            session.setTransferListener( new ThrottlingTransferListener( session.getTransferListener(), byUrl ) );
+        }
+        return new DefaultProjectBuildingRequest( request ).setRepositorySession( session );
     }
 
-    private boolean containsLifeCyclePluginGoals( ExecutionEvent executionEvent, String groupId, String artifactId,
-                                                  String goal )
+    /**
+     * Deploys the groups in parallel. Every repository has its own workers, so a slow repository does not hold up the
+     * deployment into the others.
+     */
+    private ExecutionSummary deployGroups( List<RepositoryGroup> groups,
+                                           final ProjectBuildingRequest projectBuildingRequest,
+                                           final FileRepositoryDeployer fileRepositoryDeployer,
+                                           final BundleDeployer bundleDeployer, final File bundleDirectory,
+                                           final Map<MavenProject, List<MavenProject>> upstreams,
+                                           final DeployerConfiguration configuration )
     {
+        ExecutionSummary summary = new ExecutionSummary();
+        if ( groups.size() == 1 )
+        {
+            summary.add( deployGroup( groups.get( 0 ), projectBuildingRequest, fileRepositoryDeployer,
+                                      bundleDeployer, bundleDirectory, upstreams, configuration ) );
+            return summary;
+        }
 
-        boolean result = false;
-        List<MavenProject> sortedProjects = executionEvent.getSession().getProjectDependencyGraph().getSortedProjects();
-        for ( MavenProject mavenProject : sortedProjects )
+        ExecutorService executor =
+            Executors.newFixedThreadPool( groups.size(), threadFactory( "repository", configuration ) );
+        try
         {
-            List<Plugin> buildPlugins = mavenProject.getBuildPlugins();
-            for ( Plugin plugin : buildPlugins )
+            List<Future<ExecutionSummary>> futures = new ArrayList<>();
+            for ( final RepositoryGroup group : groups )
             {
-                if ( groupId.equals( plugin.getGroupId() ) && artifactId.equals( plugin.getArtifactId() ) )
+                futures.add( executor.submit( new Callable<ExecutionSummary>()
                 {
-                    List<PluginExecution> executions = plugin.getExecutions();
-                    for ( PluginExecution pluginExecution : executions )
+                    @Override
+                    public ExecutionSummary call()
                     {
-                        if ( pluginExecution.getGoals().contains( goal ) )
-                        {
-                            result = true;
-                        }
+                        return deployGroup( group, projectBuildingRequest, fileRepositoryDeployer, bundleDeployer,
+                                            bundleDirectory, upstreams, configuration );
                     }
+                } ) );
+            }
+            for ( Future<ExecutionSummary> future : futures )
+            {
+                summary.add( future.get() );
+            }
+        }
+        catch ( ExecutionException e )
+        {
+            // deployGroup() handles the failures of the projects, so this is only an Error.
+            LOGGER.error( "The deployment has failed.", e.getCause() );
+            failRemaining( groups, summary, e.getCause() );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            LOGGER.error( "Interrupted while waiting for the deployment of the projects." );
+            failRemaining( groups, summary, e );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        return summary;
+    }
+
+    private void failRemaining( List<RepositoryGroup> groups, ExecutionSummary summary, Throwable cause )
+    {
+        for ( RepositoryGroup group : groups )
+        {
+            for ( MavenProject project : group.getProjects() )
+            {
+                if ( !summary.getSucceeded().contains( project ) && !summary.getFailed().containsKey( project ) )
+                {
+                    summary.failed( project, cause );
                 }
             }
         }
-        return result;
     }
 
-    private void removePluginFromLifeCycle( ExecutionEvent executionEvent, String groupId, String artifactId,
-                                            String goal )
+    private ExecutionSummary deployGroup( final RepositoryGroup group,
+                                          final ProjectBuildingRequest projectBuildingRequest,
+                                          final FileRepositoryDeployer fileRepositoryDeployer,
+                                          BundleDeployer bundleDeployer, File bundleDirectory,
+                                          Map<MavenProject, List<MavenProject>> upstreams,
+                                          DeployerConfiguration configuration )
     {
+        final ArtifactRepository repository = group.getRepository();
+        List<MavenProject> projects = group.getProjects();
+        ExecutionSummary resumedSummary = new ExecutionSummary();
+        List<MavenProject> interrupted = new ArrayList<>();
+        if ( repository != null )
+        {
+            projects = journal( group, configuration.isResume(), resumedSummary, interrupted );
+        }
+        // The files of an interrupted project which have arrived already are not uploaded again, a repository which
+        // does not allow to redeploy a release would reject them.
+        final IdenticalArtifacts identical =
+            repository != null && ( configuration.isSkipIdentical() || !interrupted.isEmpty() )
+                            ? new IdenticalArtifacts( group.getKey(), checksumCache )
+                            : null;
+        if ( identical != null )
+        {
+            projects = skipIdentical( group, projects, configuration.isSkipIdentical() ? projects : interrupted,
+                                      identical, resumedSummary, configuration );
+        }
+        Hedging hedging = hedgeExecutor != null && repository != null
+                        ? new Hedging( group.getKey(), configuration.getDeployHedge(), hedgeExecutor )
+                        : null;
+        ExecutionSummary bundleSummary = new ExecutionSummary();
+        // A HTTP repository without an upload URL for bundles fails, it would store the bundle as an opaque file.
+        if ( bundleDeployer != null
+            && ( FileRepositoryDeployer.basedir( repository ) != null || HttpRepository.isHttp( repository ) ) )
+        {
+            projects = deployBundle( group, projects, bundleDeployer, bundleDirectory,
+                                     configuration.getBundleUrl( repository.getId() ), hedging, bundleSummary );
+        }
 
-        boolean removed = false;
+        int threads = repository == null ? 1 : configuration.getDeployThreads( repository.getId() );
+        PoolStatistics statistics = new PoolStatistics( group.getKey(), threads );
+        if ( repository != null )
+        {
+            LOGGER.info( "Deploying {} projects to {}.", group.getProjects().size(), group );
+        }
 
-        List<MavenProject> sortedProjects = executionEvent.getSession().getProjectDependencyGraph().getSortedProjects();
-        for ( MavenProject mavenProject : sortedProjects )
+        projects = schedule( projects, threads, configuration );
+
+        final MetadataBatch metadataBatch =
+            fileRepositoryDeployer != null && FileRepositoryDeployer.basedir( repository ) != null
+                            ? fileRepositoryDeployer.begin( repository, bandwidthLimiters.get( group.getKey() ),
+                                                            retryPolicy, hedging, stagingArea )
+                            : null;
+
+        ProjectExecutor executor =
+            new ProjectExecutor( "deploy", threads, statistics, threadFactory( "deploy", configuration ) );
+        ProjectTask task = new ProjectTask()
         {
-            List<Plugin> buildPlugins = mavenProject.getBuildPlugins();
-            for ( Plugin plugin : buildPlugins )
+            @Override
+            public void execute( MavenProject mavenProject )
+                throws Exception
             {
-                LOGGER.debug( "Plugin: " + plugin.getId() );
-                List<PluginExecution> printExecutions = plugin.getExecutions();
-                for ( PluginExecution pluginExecution : printExecutions )
+                if ( repository == null )
                 {
-                    LOGGER.debug( "  -> " + pluginExecution.getGoals() );
+                    throw new MavenDeployerException( "No distributionManagement repository has been defined." );
                 }
 
-                if ( groupId.equals( plugin.getGroupId() ) && artifactId.equals( plugin.getArtifactId() ) )
+                if ( metadataBatch != null && fileRepositoryDeployer.canDeploy( mavenProject, repository ) )
                 {
-                    if ( !removed )
+                    planned( group.getKey(), mavenProject, true );
+                    fileRepositoryDeployer.deploy( mavenProject, metadataBatch, identical );
+                    return;
+                }
+
+                planned( group.getKey(), mavenProject, false );
+                final ProjectDeployerRequest deployRequest =
+                    new ProjectDeployerRequest().setProject( mavenProject );
+                final List<Artifact> missing = new ArrayList<>();
+                List<File> present = new ArrayList<>();
+                if ( identical != null && !mavenProject.getArtifact().isSnapshot() )
+                {
+                    String version = mavenProject.getArtifact().getBaseVersion();
+                    for ( ArtifactFile artifactFile : ArtifactFile.of( mavenProject ) )
                     {
-                        LOGGER.warn( groupId + ":" + artifactId + ":" + goal + " has been deactivated." );
+                        if ( identical.isIdentical( artifactFile.getPath( version ) ) )
+                        {
+                            present.add( artifactFile.getFile() );
+                        }
+                        else
+                        {
+                            missing.add( artifactFile.toArtifact() );
+                        }
                     }
-                    List<PluginExecution> executions = plugin.getExecutions();
-                    for ( PluginExecution pluginExecution : executions )
+                }
+                if ( !present.isEmpty() )
+                {
+                    LOGGER.info( "{}: deploying {} of {} files of {}, the others are there already.", group,
+                                 missing.size(), missing.size() + present.size(), mavenProject.getId() );
+                }
+
+                // The transfer stack deploys the whole project, so the whole project is retried (only on request).
+                projectRetryPolicy.run( "Deploying " + mavenProject.getId() + " to " + group, new RetryPolicy.Action()
+                {
+                    @Override
+                    public void run()
+                        throws Exception
                     {
-                        pluginExecution.removeGoal( goal );
-                        removed = true;
+                        if ( missing.isEmpty() )
+                        {
+                            deployProject( projectBuildingRequest, deployRequest, repository );
+                        }
+                        else
+                        {
+                            artifactDeployer.deploy( projectBuildingRequest, repository, missing );
+                        }
                     }
+                } );
+                for ( File file : present )
+                {
+                    identical.skipped( file );
                 }
+                completed( group.getKey(), mavenProject );
             }
+        };
+        AdaptiveConcurrency concurrency = null;
+        if ( repository != null && threads > 1 && configuration.isAdaptiveConcurrency() )
+        {
+            concurrency =
+                new AdaptiveConcurrency( group.getKey(), configuration.getDeployConcurrencyMin(), threads, statistics );
+            task = concurrency.guard( task );
+        }
+        CircuitBreaker circuitBreaker = null;
+        if ( repository != null && configuration.getCircuitFailures() > 0 )
+        {
+            // Outside of the concurrency, so the skipped projects neither wait for a permit nor change the limit.
+            circuitBreaker = new CircuitBreaker( group.getKey(), configuration.getCircuitFailures(),
+                                                 configuration.getCircuitOpenTime() );
+            task = circuitBreaker.guard( task );
+        }
+        ExecutionSummary summary =
+            upstreams != null ? executor.execute( projects, upstreams, task ) : executor.execute( projects, task );
+        if ( concurrency != null )
+        {
+            transferMetrics.add( concurrency );
+            LOGGER.info( "{}: between {} and {} projects in parallel, at most {}, at the end {}, decreased {} times."
+                + " {} projects have waited for a permit, {} ms in total.", group, concurrency.getMinimum(),
+                         concurrency.getMaximum(), concurrency.getPeak(), concurrency.getLimit(),
+                         concurrency.getDecreases(), statistics.getPermitWaits(),
+                         TimeUnit.NANOSECONDS.toMillis( statistics.getTotalPermitWait() ) );
+        }
+        if ( circuitBreaker != null && circuitBreaker.getOpened() > 0 )
+        {
+            transferMetrics.add( circuitBreaker );
+            LOGGER.error( "{}: {} projects have been skipped because the repository has failed, the circuit breaker has"
+                + " opened {} times and is {} at the end.", group, circuitBreaker.getShortCircuited(),
+                          circuitBreaker.getOpened(), circuitBreaker.getState() );
+        }
+
+        if ( repository != null && !projects.isEmpty() )
+        {
+            transferMetrics.add( statistics );
+            LOGGER.info( "{}: {} of {} threads used, saturated {}% of the time, queue wait {} ms on average and {} ms"
+                + " at most.", group, statistics.getPeak(), threads,
+                         String.format( Locale.ROOT, "%.1f", statistics.getSaturation() * 100 ),
+                         TimeUnit.NANOSECONDS.toMillis( statistics.getMeanWait() ),
+                         TimeUnit.NANOSECONDS.toMillis( statistics.getMaxWait() ) );
+            logMakespan( statistics );
         }
+        if ( hedging != null && hedging.getHedged() > 0 )
+        {
+            LOGGER.info( "{}: {} uploads have been hedged, the second upload has finished first {} times.", group,
+                         hedging.getHedged(), hedging.getWon() );
+        }
+        if ( identical != null && ( identical.getSkippedFiles() > 0 || identical.getFailedFiles() > 0 ) )
+        {
+            transferMetrics.add( identical );
+        }
+        if ( identical != null && identical.getSkippedFiles() > 0 )
+        {
+            LOGGER.info( "{}: {} identical files ({} bytes) have not been uploaded again, {} projects not at all.",
+                         group, identical.getSkippedFiles(), identical.getSkippedBytes(),
+                         identical.getSkippedProjects() );
+        }
+        if ( metadataBatch != null )
+        {
+            commitMetadata( fileRepositoryDeployer, metadataBatch, summary );
+        }
+        summary.add( bundleSummary );
+        summary.add( resumedSummary );
+        return summary;
     }
 
-    private void deployProjects( ExecutionEvent executionEvent )
+    /**
+     * @return The id of the session in the journal: the start of the session in UTC.
+     */
+    private static String sessionId( ExecutionEvent executionEvent )
     {
-        // Assumption is to have the distributionManagement in the top level
-        // pom file located.
-        ArtifactRepository repository =
-            executionEvent.getSession().getTopLevelProject().getDistributionManagementArtifactRepository();
+        SimpleDateFormat format = new SimpleDateFormat( "yyyyMMdd.HHmmss.SSS" );
+        format.setTimeZone( TimeZone.getTimeZone( "UTC" ) );
+        return format.format( executionEvent.getSession().getStartTime() );
+    }
 
-        List<MavenProject> sortedProjects = executionEvent.getSession().getProjectDependencyGraph().getSortedProjects();
-        for ( MavenProject mavenProject : sortedProjects )
+    /**
+     * Skips the projects of the group which a previous session has deployed completely with exactly the same files.
+     * Only a resumed deployment has to know the files of the projects before they are deployed.
+     *
+     * @param resumed Receives the skipped projects as succeeded.
+     * @param interrupted Receives the projects whose deployment a previous session has started with exactly the same
+     *            files but not completed.
+     * @return The projects which have to be deployed.
+     */
+    private List<MavenProject> journal( RepositoryGroup group, boolean resume, ExecutionSummary resumed,
+                                        List<MavenProject> interrupted )
+    {
+        if ( !resume )
+        {
+            return group.getProjects();
+        }
+        List<MavenProject> remaining = new ArrayList<>();
+        for ( MavenProject project : group.getProjects() )
         {
-            ProjectDeployerRequest deployRequest =
-                new ProjectDeployerRequest().setProject( mavenProject );
+            String session;
+            String interruptedSession = null;
+            try
+            {
+                Map<String, String> files = DeployJournal.files( project, checksumCache );
+                session = journal.findCompleted( group.getKey(), project, files );
+                if ( session == null )
+                {
+                    interruptedSession = journal.findInterrupted( group.getKey(), project, files );
+                }
+            }
+            catch ( IOException | NoFileAssignedException e )
+            {
+                // The deployment of the project reports the problem.
+                session = null;
+            }
+            if ( session != null )
+            {
+                LOGGER.debug( "{} has been deployed to {} in session {} already.", project.getId(), group, session );
+                resumed.succeeded( project );
+                continue;
+            }
+            if ( interruptedSession != null )
+            {
+                LOGGER.info( "The deployment of {} to {} has been interrupted in session {}, the files which have"
+                    + " arrived already are not uploaded again.", project.getId(), group, interruptedSession );
+                interrupted.add( project );
+            }
+            remaining.add( project );
+        }
+        LOGGER.info( "Resuming the deployment to {}: {} of {} projects have been deployed already.", group,
+                     resumed.getSucceeded().size(), group.getProjects().size() );
+        return remaining;
+    }
 
-            deployProject( executionEvent.getSession().getProjectBuildingRequest(), deployRequest, repository );
+    /**
+     * Records the files of the given project as planned in the journal, before they are transferred. The files are
+     * hashed on the thread of the project.
+     *
+     * @param digests {@code true} if the deployment reads all digests of the files anyway (the fast path and the
+     *            bundle), then they are calculated at once, otherwise only the SHA-1 is.
+     */
+    private void planned( String repository, MavenProject project, boolean digests )
+    {
+        if ( journal == null )
+        {
+            return;
+        }
+        try
+        {
+            if ( digests )
+            {
+                for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+                {
+                    checksumCache.get( artifactFile.getFile() );
+                }
+            }
+            journal.planned( repository, project, DeployJournal.files( project, checksumCache ) );
+        }
+        catch ( IOException | NoFileAssignedException e )
+        {
+            LOGGER.warn( "Could not record {} in the deploy journal: {}", project.getId(), e.getMessage() );
         }
     }
 
-    private void installProjects( ExecutionEvent exec )
+    /**
+     * Records the given project as completed in the journal. Its files have been recorded as planned before.
+     */
+    private void completed( String repository, MavenProject project )
     {
-        List<MavenProject> sortedProjects = exec.getSession().getProjectDependencyGraph().getSortedProjects();
-        for ( MavenProject mavenProject : sortedProjects )
+        if ( journal != null )
         {
-            ProjectInstallerRequest pir =
-                new ProjectInstallerRequest().setProject( mavenProject );
+            journal.completed( repository, project );
+        }
+    }
 
-            installProject( exec.getSession().getProjectBuildingRequest(), pir );
+    /**
+     * Compares the files of the projects with the checksums in the repository. The projects whose files are all
+     * there with the same content are not deployed again.
+     *
+     * @param compared The projects whose files are compared, all other projects are deployed.
+     * @param skipped Receives the projects which are not deployed as succeeded.
+     * @return The projects which have to be deployed.
+     */
+    private List<MavenProject> skipIdentical( RepositoryGroup group, List<MavenProject> projects,
+                                              List<MavenProject> compared, IdenticalArtifacts identical,
+                                              ExecutionSummary skipped, DeployerConfiguration configuration )
+    {
+        ArtifactRepository repository = group.getRepository();
+        File basedir = FileRepositoryDeployer.basedir( repository );
+        RepositoryTarget remote = basedir != null ? new DirectoryTarget( basedir )
+                        : HttpRepository.isHttp( repository ) ? new HttpRepository( repository, null ) : null;
+        if ( remote == null )
+        {
+            LOGGER.warn( "The files can't be compared with {}, everything is uploaded.", group );
+            return projects;
         }
+        identical.fetch( remote, compared, configuration.getDeployConnections( repository.getId() ),
+                         threadFactory( "compare", configuration ) );
 
+        List<MavenProject> remaining = new ArrayList<>();
+        for ( MavenProject project : projects )
+        {
+            if ( !identical.isIdentical( project ) )
+            {
+                remaining.add( project );
+                continue;
+            }
+            try
+            {
+                identical.skipped( project );
+            }
+            catch ( NoFileAssignedException e )
+            {
+                // Not possible for a project whose files have been compared.
+                remaining.add( project );
+                continue;
+            }
+            LOGGER.info( "{} is identical in {}, not deploying it again.", project.getId(), group );
+            skipped.succeeded( project );
+            planned( group.getKey(), project, false );
+            completed( group.getKey(), project );
+        }
+        return remaining;
     }
 
-    private void deployProject( ProjectBuildingRequest projectBuildingRequest, ProjectDeployerRequest deployRequest,
-                                ArtifactRepository repository )
+    private void logMakespan( PoolStatistics statistics )
+    {
+        if ( statistics.getCapacity() > 1 && statistics.getTasks() > 1 )
+        {
+            LOGGER.info( "{}: makespan {} ms, expected {} ms for the projects largest first, lower bound {} ms.",
+                         statistics.getName(), TimeUnit.NANOSECONDS.toMillis( statistics.getWallTime() ),
+                         TimeUnit.NANOSECONDS.toMillis( statistics.getExpectedMakespan() ),
+                         TimeUnit.NANOSECONDS.toMillis( statistics.getMakespanLowerBound() ) );
+        }
+    }
+
+    /**
+     * Writes the metadata of all projects which have been deployed by the {@link FileRepositoryDeployer}. If this
+     * fails, none of these projects is visible in the repository.
+     */
+    private void commitMetadata( FileRepositoryDeployer fileRepositoryDeployer, MetadataBatch metadataBatch,
+                                 ExecutionSummary summary )
     {
         try
         {
-            projectDeployer.deploy( projectBuildingRequest, deployRequest, repository );
+            fileRepositoryDeployer.commit( metadataBatch );
+            // Only now the projects of the batch are complete in the repository.
+            for ( MavenProject project : metadataBatch.getProjects() )
+            {
+                completed( metadataBatch.getRepositoryName(), project );
+            }
         }
-        catch ( IllegalArgumentException e )
+        catch ( IOException | RuntimeException e )
         {
-            LOGGER.error( "IllegalArgumentException", e );
+            LOGGER.error( "Writing the metadata to {} has failed: {}", metadataBatch.getRepositoryName(),
+                          e.getMessage() );
+            for ( MavenProject project : metadataBatch.getProjects() )
+            {
+                summary.failed( project, e );
+            }
         }
-        catch ( NoFileAssignedException e )
+    }
+
+    /**
+     * Deploys the projects of the group as one bundle. The bundle succeeds or fails as a whole.
+     *
+     * @return The projects which can not be part of a bundle and have to be deployed one by one.
+     */
+    private List<MavenProject> deployBundle( RepositoryGroup group, List<MavenProject> projects,
+                                             BundleDeployer bundleDeployer, File bundleDirectory, String bundleUrl,
+                                             Hedging hedging, ExecutionSummary summary )
+    {
+        List<MavenProject> bundled = new ArrayList<>();
+        List<MavenProject> remaining = new ArrayList<>();
+        for ( MavenProject project : projects )
         {
-            LOGGER.error( "NoFileAssignedException", e );
+            ( FileRepositoryDeployer.canDeploy( project ) ? bundled : remaining ).add( project );
         }
-        catch ( ArtifactDeployerException e )
+        if ( bundled.isEmpty() )
         {
-            LOGGER.error( "ArtifactDeployerException", e );
+            return remaining;
         }
 
+        for ( MavenProject project : bundled )
+        {
+            planned( group.getKey(), project, true );
+        }
+        try
+        {
+            bundleDeployer.deploy( bundled, group.getRepository(), bundleDirectory, bundleUrl,
+                                   bandwidthLimiters.get( group.getKey() ), retryPolicy, hedging );
+            for ( MavenProject project : bundled )
+            {
+                summary.succeeded( project );
+                completed( group.getKey(), project );
+            }
+        }
+        catch ( IOException | NoFileAssignedException | RuntimeException e )
+        {
+            LOGGER.error( "The bundle for {} has failed: {}", group, e.getMessage() );
+            for ( MavenProject project : bundled )
+            {
+                summary.failed( project, e );
+            }
+        }
+        return remaining;
     }
 
-    private void installProject( ProjectBuildingRequest pbr, ProjectInstallerRequest pir )
+    private void reportSummary( ExecutionEvent executionEvent, String action, ExecutionSummary summary )
     {
-        try
+        LOGGER.info( "{} {} of {} projects.", action, summary.getSucceeded().size(), summary.getTotal() );
+        if ( summary.isSuccess() )
         {
-            projectInstaller.install( pbr, pir );
+            return;
         }
-        catch ( IOException e )
+
+        StringBuilder message = new StringBuilder();
+        message.append( "The following projects have not been " ).append( action.toLowerCase() ).append( ':' );
+        int skipped = 0;
+        for ( Map.Entry<MavenProject, Throwable> entry : summary.getFailed().entrySet() )
         {
-            LOGGER.error( "IOException", e );
+            message.append( System.lineSeparator() ).append( "  " ).append( entry.getKey().getId() );
+            message.append( " (" ).append( entry.getValue().getMessage() ).append( ')' );
+            if ( entry.getValue() instanceof CircuitBreaker.OpenException )
+            {
+                skipped++;
+            }
         }
-        catch ( ArtifactInstallerException e )
+        if ( skipped > 0 )
         {
-            LOGGER.error( "ArtifactInstallerException", e );
+            message.append( System.lineSeparator() ).append( skipped ).append( " of them have not been tried at all" )
+                .append( " because their repository has been unavailable. They can be deployed with" )
+                .append( " -D" ).append( DeployerConfiguration.RESUME ).append( "=true once it is available again." );
         }
-        catch ( NoFileAssignedException e )
+        LOGGER.error( message.toString() );
+        executionEvent.getSession().getResult().addException( new MavenDeployerException( message.toString() ) );
+    }
+
+    private void installProjects( ExecutionEvent exec, DeployerConfiguration configuration )
+    {
+        final ProjectBuildingRequest projectBuildingRequest =
+            transferMetrics.attach( exec.getSession().getProjectBuildingRequest() );
+        final MetadataLocks metadataLocks = new MetadataLocks();
+        final LocalRepositoryLinker linker =
+            configuration.isLinkInstall() ? new LocalRepositoryLinker( repositoryManager, checksumCache ) : null;
+
+        List<MavenProject> sortedProjects = exec.getSession().getProjectDependencyGraph().getSortedProjects();
+        int threads = configuration.getInstallThreads();
+        sortedProjects = schedule( sortedProjects, threads, configuration );
+        PoolStatistics statistics =
+            new PoolStatistics( DistributionRepositories.key( exec.getSession().getLocalRepository() ), threads );
+
+        long start = System.nanoTime();
+        ProjectExecutor executor =
+            new ProjectExecutor( "install", threads, statistics, threadFactory( "install", configuration ) );
+        ExecutionSummary summary = executor.execute( sortedProjects, metadataLocks.guard( new ProjectTask()
         {
-            LOGGER.error( "NoFileAssignedException", e );
-        }
+            @Override
+            public void execute( MavenProject mavenProject )
+                throws Exception
+            {
+                ProjectInstallerRequest pir = new ProjectInstallerRequest().setProject( mavenProject );
+
+                if ( linker == null )
+                {
+                    installProject( projectBuildingRequest, pir );
+                    return;
+                }
+
+                List<LocalRepositoryLinker.PlacedFile> placedFiles =
+                    linker.place( projectBuildingRequest, mavenProject );
+                installProject( projectBuildingRequest, pir );
+                linker.verify( placedFiles );
+            }
+        } ) );
+        transferMetrics.time( TransferMetrics.INSTALL, System.nanoTime() - start );
+        transferMetrics.add( statistics );
+        logMakespan( statistics );
+
+        reportSummary( exec, "Installed", summary );
+    }
+
+    private void deployProject( ProjectBuildingRequest projectBuildingRequest, ProjectDeployerRequest deployRequest,
+                                ArtifactRepository repository )
+        throws NoFileAssignedException, ArtifactDeployerException
+    {
+        projectDeployer.deploy( projectBuildingRequest, deployRequest, repository );
+    }
+
+    private void installProject( ProjectBuildingRequest pbr, ProjectInstallerRequest pir )
+        throws IOException, ArtifactInstallerException, NoFileAssignedException
+    {
+        projectInstaller.install( pbr, pir );
     }
 
 }
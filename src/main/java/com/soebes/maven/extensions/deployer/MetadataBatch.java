@@ -0,0 +1,148 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Collects the changes of all metadata files of a repository during the deployment. Every metadata file is read at
+ * most once, all changes are merged in memory and the {@link FileRepositoryDeployer} writes every changed file exactly
+ * once after the files of all projects have been written. Only the {@link FileRepositoryDeployer} uses it, so it only
+ * applies to {@code file://} repositories with {@code deployer.fastPath=true}.
+ */
+class MetadataBatch
+{
+    private final RepositoryTarget target;
+
+    private final String repositoryName;
+
+    private final Map<String, Metadata> metadata = new HashMap<>();
+
+    private final Map<String, Metadata> changed = new LinkedHashMap<>();
+
+    private final Set<MavenProject> projects = new LinkedHashSet<>();
+
+    /**
+     * @param target The repository the metadata is read from and written to.
+     * @param repositoryName The name of the repository for the log and the metrics.
+     */
+    MetadataBatch( RepositoryTarget target, String repositoryName )
+    {
+        this.target = target;
+        this.repositoryName = repositoryName;
+    }
+
+    RepositoryTarget getTarget()
+    {
+        return target;
+    }
+
+    String getRepositoryName()
+    {
+        return repositoryName;
+    }
+
+    /**
+     * @return The metadata of the given path including all changes so far. A file which does not exist yet results
+     *         in an empty {@link Metadata}. The metadata files of a version and of an artifact belong to a single
+     *         project of the reactor, so the returned object is changed without further locking. The file is read
+     *         without holding the lock, a (virtual) worker thread never blocks the others during the download.
+     */
+    Metadata get( String path )
+        throws IOException
+    {
+        synchronized ( this )
+        {
+            Metadata existing = metadata.get( path );
+            if ( existing != null )
+            {
+                return existing;
+            }
+        }
+        Metadata read = read( path );
+        synchronized ( this )
+        {
+            Metadata existing = metadata.get( path );
+            if ( existing == null )
+            {
+                existing = read;
+                metadata.put( path, existing );
+            }
+            return existing;
+        }
+    }
+
+    /**
+     * Marks the metadata of the given path as changed by the given project.
+     */
+    synchronized void changed( String path, MavenProject project )
+    {
+        changed.put( path, metadata.get( path ) );
+        projects.add( project );
+    }
+
+    /**
+     * @return The changed metadata files in the order of their first change.
+     */
+    synchronized Map<String, Metadata> getChanged()
+    {
+        return new LinkedHashMap<>( changed );
+    }
+
+    /**
+     * @return The projects which are only complete after the metadata has been written.
+     */
+    synchronized List<MavenProject> getProjects()
+    {
+        return new ArrayList<>( projects );
+    }
+
+    private Metadata read( String path )
+        throws IOException
+    {
+        byte[] content = target.read( path );
+        if ( content == null )
+        {
+            return new Metadata();
+        }
+        try
+        {
+            return new MetadataXpp3Reader().read( new ByteArrayInputStream( content ), false );
+        }
+        catch ( XmlPullParserException e )
+        {
+            throw new IOException( "Could not read " + path + ": " + e.getMessage(), e );
+        }
+    }
+
+}
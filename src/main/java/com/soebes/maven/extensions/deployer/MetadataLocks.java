@@ -0,0 +1,101 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * Serializes the writes of the local repository metadata files if projects are installed in parallel. Every project
+ * of a reactor has its own {@code groupId:artifactId} so the artifact level {@code maven-metadata-local.xml} files
+ * are not shared, but the group level metadata which contains the plugin prefixes is written by every project with
+ * packaging {@code maven-plugin} of the same {@code groupId}.
+ */
+class MetadataLocks
+{
+    private final ConcurrentMap<String, Lock> locks = new ConcurrentHashMap<String, Lock>();
+
+    /**
+     * @return A task which runs the given task while holding the locks for all metadata files the project writes.
+     */
+    ProjectTask guard( final ProjectTask task )
+    {
+        return new ProjectTask()
+        {
+            @Override
+            public void execute( MavenProject project )
+                throws Exception
+            {
+                withLocks( project, task );
+            }
+        };
+    }
+
+    private void withLocks( MavenProject project, ProjectTask task )
+        throws Exception
+    {
+        // Always the same order (artifact before group) to prevent a deadlock.
+        Lock artifactLock = lock( project.getGroupId() + ':' + project.getArtifactId() );
+        Lock groupLock = "maven-plugin".equals( project.getPackaging() ) ? lock( project.getGroupId() ) : null;
+
+        artifactLock.lock();
+        try
+        {
+            if ( groupLock == null )
+            {
+                task.execute( project );
+                return;
+            }
+            groupLock.lock();
+            try
+            {
+                task.execute( project );
+            }
+            finally
+            {
+                groupLock.unlock();
+            }
+        }
+        finally
+        {
+            artifactLock.unlock();
+        }
+    }
+
+    private Lock lock( String key )
+    {
+        Lock lock = locks.get( key );
+        if ( lock == null )
+        {
+            Lock newLock = new ReentrantLock();
+            lock = locks.putIfAbsent( key, newLock );
+            if ( lock == null )
+            {
+                lock = newLock;
+            }
+        }
+        return lock;
+    }
+
+}
@@ -0,0 +1,234 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The utilization of the worker pool of a {@link ProjectExecutor}: how long the projects have waited for a free worker,
+ * how much of the time all workers have been busy (saturation) and how the makespan compares to the one expected for
+ * the measured durations of the projects. A worker which waits for a permit of the {@link AdaptiveConcurrency} is not
+ * busy, the permit wait is recorded on its own and is not part of the duration of the project.
+ */
+final class PoolStatistics
+{
+    private final String name;
+
+    private final int capacity;
+
+    private int active;
+
+    private int peak;
+
+    private int tasks;
+
+    private long totalWait;
+
+    private long maxWait;
+
+    private int permitWaits;
+
+    private long totalPermitWait;
+
+    private long maxPermitWait;
+
+    /**
+     * The permit wait of the project the current worker is running, which is deducted from its duration.
+     */
+    private final ThreadLocal<Long> permitWait = new ThreadLocal<>();
+
+    private long start;
+
+    private long end;
+
+    private long saturatedSince;
+
+    private long saturated;
+
+    private final List<Long> durations = new ArrayList<>();
+
+    /**
+     * @param name The name of the pool, for example the repository.
+     * @param capacity The number of workers.
+     */
+    PoolStatistics( String name, int capacity )
+    {
+        this.name = name;
+        this.capacity = capacity;
+    }
+
+    synchronized void begin()
+    {
+        start = System.nanoTime();
+    }
+
+    synchronized void end()
+    {
+        end = System.nanoTime();
+    }
+
+    /**
+     * A worker has started a task after the given time in the queue.
+     */
+    synchronized void started( long waitNanos )
+    {
+        tasks++;
+        totalWait += waitNanos;
+        maxWait = Math.max( maxWait, waitNanos );
+        busy();
+    }
+
+    /**
+     * A worker has finished a task which has run for the given time.
+     */
+    synchronized void finished( long runNanos )
+    {
+        Long waited = permitWait.get();
+        permitWait.remove();
+        durations.add( waited == null ? runNanos : runNanos - waited );
+        idle();
+    }
+
+    /**
+     * The current worker starts to wait for a permit, it is not busy until {@link #permitted(long)}.
+     */
+    synchronized void waiting()
+    {
+        idle();
+    }
+
+    /**
+     * The current worker has got its permit after the given time.
+     */
+    synchronized void permitted( long waitNanos )
+    {
+        permitWaits++;
+        totalPermitWait += waitNanos;
+        maxPermitWait = Math.max( maxPermitWait, waitNanos );
+        Long waited = permitWait.get();
+        permitWait.set( waited == null ? waitNanos : waited + waitNanos );
+        busy();
+    }
+
+    private void busy()
+    {
+        active++;
+        peak = Math.max( peak, active );
+        if ( active == capacity )
+        {
+            saturatedSince = System.nanoTime();
+        }
+    }
+
+    private void idle()
+    {
+        if ( active == capacity )
+        {
+            saturated += System.nanoTime() - saturatedSince;
+        }
+        active--;
+    }
+
+    String getName()
+    {
+        return name;
+    }
+
+    int getCapacity()
+    {
+        return capacity;
+    }
+
+    synchronized int getPeak()
+    {
+        return peak;
+    }
+
+    synchronized int getTasks()
+    {
+        return tasks;
+    }
+
+    synchronized long getTotalWait()
+    {
+        return totalWait;
+    }
+
+    synchronized long getMaxWait()
+    {
+        return maxWait;
+    }
+
+    synchronized long getMeanWait()
+    {
+        return tasks == 0 ? 0 : totalWait / tasks;
+    }
+
+    /**
+     * @return The number of projects which have waited for a permit of the {@link AdaptiveConcurrency}.
+     */
+    synchronized int getPermitWaits()
+    {
+        return permitWaits;
+    }
+
+    synchronized long getTotalPermitWait()
+    {
+        return totalPermitWait;
+    }
+
+    synchronized long getMaxPermitWait()
+    {
+        return maxPermitWait;
+    }
+
+    synchronized long getWallTime()
+    {
+        return end - start;
+    }
+
+    /**
+     * @return The makespan the measured projects have with the workers of this pool when they are scheduled largest
+     *         first without any overhead.
+     */
+    synchronized long getExpectedMakespan()
+    {
+        return SizeSchedule.makespan( durations, capacity );
+    }
+
+    /**
+     * @return The makespan no schedule of the measured projects can beat.
+     */
+    synchronized long getMakespanLowerBound()
+    {
+        return SizeSchedule.lowerBound( durations, capacity );
+    }
+
+    /**
+     * @return The part of the wall time (between {@code 0} and {@code 1}) in which all workers have been busy.
+     */
+    synchronized double getSaturation()
+    {
+        long wallTime = end - start;
+        return wallTime <= 0 ? 0 : Math.min( 1.0, saturated / (double) wallTime );
+    }
+
+}
@@ -0,0 +1,429 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a {@link ProjectTask} for a list of projects. With a single thread the projects are handled one after another
+ * in the calling thread (that's the behaviour the extension always had), otherwise the projects are handed over to a
+ * bounded pool of worker threads. The failure of a single project does not stop the others, except for the projects
+ * which have to wait for it (see {@link #execute(List, Map, ProjectTask)}).
+ */
+class ProjectExecutor
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( ProjectExecutor.class );
+
+    private final String name;
+
+    private final int threads;
+
+    private final PoolStatistics statistics;
+
+    private final ThreadFactory threadFactory;
+
+    /**
+     * @param name The name of the work (for example {@code deploy}) used for logging and thread names.
+     * @param threads The maximum number of projects handled in parallel.
+     */
+    ProjectExecutor( String name, int threads )
+    {
+        this( name, threads, null );
+    }
+
+    /**
+     * @param name The name of the work (for example {@code deploy}) used for logging and thread names.
+     * @param threads The maximum number of projects handled in parallel.
+     * @param statistics Receives the queue wait and the utilization of the workers or {@code null}.
+     */
+    ProjectExecutor( String name, int threads, PoolStatistics statistics )
+    {
+        this( name, threads, statistics, new WorkerThreadFactory( name ) );
+    }
+
+    /**
+     * @param name The name of the work (for example {@code deploy}) used for logging.
+     * @param threads The maximum number of projects handled in parallel.
+     * @param statistics Receives the queue wait and the utilization of the workers or {@code null}.
+     * @param threadFactory Creates the workers of the pool (see {@link WorkerThreads}).
+     */
+    ProjectExecutor( String name, int threads, PoolStatistics statistics, ThreadFactory threadFactory )
+    {
+        this.name = name;
+        this.threads = threads;
+        this.statistics = statistics;
+        this.threadFactory = threadFactory;
+    }
+
+    ExecutionSummary execute( List<MavenProject> projects, ProjectTask task )
+    {
+        ExecutionSummary summary = new ExecutionSummary();
+        if ( statistics != null )
+        {
+            statistics.begin();
+        }
+        if ( threads <= 1 || projects.size() <= 1 )
+        {
+            // Every project is queued from the beginning, like with a pool of a single worker.
+            long queued = System.nanoTime();
+            for ( MavenProject project : projects )
+            {
+                run( project, task, summary, queued );
+            }
+        }
+        else
+        {
+            executeParallel( projects, task, summary );
+        }
+        if ( statistics != null )
+        {
+            statistics.end();
+        }
+        return summary;
+    }
+
+    /**
+     * Runs the task for every project only after it has succeeded for all of the project's upstream projects. The
+     * projects which are ready at the same time are started in the order of the given list. A project whose upstream
+     * project has failed is not run at all and reported as failed.
+     *
+     * @param upstreams The projects every project has to wait for. Projects which are not in the list are ignored.
+     */
+    ExecutionSummary execute( List<MavenProject> projects, Map<MavenProject, List<MavenProject>> upstreams,
+                              ProjectTask task )
+    {
+        if ( projects.size() <= 1 )
+        {
+            return execute( projects, task );
+        }
+        // Even a single thread needs the run, the order of the reactor alone doesn't skip the downstream projects.
+        ExecutionSummary summary = new ExecutionSummary();
+        if ( statistics != null )
+        {
+            statistics.begin();
+        }
+        new DependencyRun( projects, upstreams, task, summary ).run();
+        if ( statistics != null )
+        {
+            statistics.end();
+        }
+        return summary;
+    }
+
+    private void executeParallel( List<MavenProject> projects, final ProjectTask task,
+                                  final ExecutionSummary summary )
+    {
+        int poolSize = Math.min( threads, projects.size() );
+        LOGGER.info( "Using {} threads to {} {} projects.", poolSize, name, projects.size() );
+
+        ExecutorService executor = Executors.newFixedThreadPool( poolSize, threadFactory );
+        try
+        {
+            List<Future<?>> futures = new ArrayList<Future<?>>( projects.size() );
+            for ( final MavenProject project : projects )
+            {
+                final long queued = System.nanoTime();
+                futures.add( executor.submit( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        ProjectExecutor.this.run( project, task, summary, queued );
+                    }
+                } ) );
+            }
+
+            for ( int i = 0; i < futures.size(); i++ )
+            {
+                try
+                {
+                    futures.get( i ).get();
+                }
+                catch ( ExecutionException e )
+                {
+                    // run() handles everything a task can throw, so this is only an Error.
+                    summary.failed( projects.get( i ), e.getCause() );
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            LOGGER.error( "Interrupted while waiting for the {} of the projects.", name );
+            for ( MavenProject project : projects )
+            {
+                if ( !summary.getSucceeded().contains( project ) && !summary.getFailed().containsKey( project ) )
+                {
+                    summary.failed( project, e );
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void run( MavenProject project, ProjectTask task, ExecutionSummary summary, long queued )
+    {
+        long start = System.nanoTime();
+        if ( statistics != null )
+        {
+            statistics.started( start - queued );
+        }
+        try
+        {
+            task.execute( project );
+            summary.succeeded( project );
+        }
+        catch ( CircuitBreaker.OpenException e )
+        {
+            LOGGER.warn( "{}: {}", project.getId(), e.getMessage() );
+            summary.failed( project, e );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.error( "The " + name + " of " + project.getId() + " has failed.", e );
+            summary.failed( project, e );
+        }
+        finally
+        {
+            if ( statistics != null )
+            {
+                statistics.finished( System.nanoTime() - start );
+            }
+        }
+    }
+
+    /**
+     * A single run of the projects in the order of their dependencies. The projects are submitted to the pool as soon
+     * as their last upstream project has succeeded.
+     */
+    private final class DependencyRun
+    {
+        private final List<MavenProject> projects;
+
+        private final ProjectTask task;
+
+        private final ExecutionSummary summary;
+
+        private final Map<MavenProject, Integer> order = new HashMap<>();
+
+        private final Map<MavenProject, Integer> waitingFor = new HashMap<>();
+
+        private final Map<MavenProject, List<MavenProject>> downstreams = new HashMap<>();
+
+        private final CountDownLatch done;
+
+        private ExecutorService executor;
+
+        DependencyRun( List<MavenProject> projects, Map<MavenProject, List<MavenProject>> upstreams, ProjectTask task,
+                       ExecutionSummary summary )
+        {
+            this.projects = projects;
+            this.task = task;
+            this.summary = summary;
+            this.done = new CountDownLatch( projects.size() );
+            for ( int i = 0; i < projects.size(); i++ )
+            {
+                order.put( projects.get( i ), i );
+                downstreams.put( projects.get( i ), new ArrayList<MavenProject>() );
+            }
+            for ( MavenProject project : projects )
+            {
+                int count = 0;
+                List<MavenProject> projectUpstreams = upstreams.get( project );
+                for ( MavenProject upstream : projectUpstreams == null ? Collections.<MavenProject>emptyList()
+                                : projectUpstreams )
+                {
+                    if ( downstreams.containsKey( upstream ) && upstream != project )
+                    {
+                        downstreams.get( upstream ).add( project );
+                        count++;
+                    }
+                }
+                waitingFor.put( project, count );
+            }
+        }
+
+        void run()
+        {
+            int poolSize = Math.max( 1, Math.min( threads, projects.size() ) );
+            LOGGER.info( "Using {} threads to {} {} projects in the order of their dependencies.", poolSize, name,
+                         projects.size() );
+            executor = Executors.newFixedThreadPool( poolSize, threadFactory );
+            try
+            {
+                List<MavenProject> ready = new ArrayList<>();
+                synchronized ( this )
+                {
+                    for ( MavenProject project : projects )
+                    {
+                        if ( waitingFor.get( project ) == 0 )
+                        {
+                            ready.add( project );
+                        }
+                    }
+                }
+                submit( ready );
+                done.await();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                LOGGER.error( "Interrupted while waiting for the {} of the projects.", name );
+                for ( MavenProject project : projects )
+                {
+                    if ( !summary.getSucceeded().contains( project ) && !summary.getFailed().containsKey( project ) )
+                    {
+                        summary.failed( project, e );
+                    }
+                }
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+
+        private void submit( List<MavenProject> ready )
+        {
+            for ( final MavenProject project : ready )
+            {
+                final long queued = System.nanoTime();
+                try
+                {
+                    executor.execute( new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            try
+                            {
+                                ProjectExecutor.this.run( project, task, summary, queued );
+                            }
+                            finally
+                            {
+                                finished( project );
+                            }
+                        }
+                    } );
+                }
+                catch ( RejectedExecutionException e )
+                {
+                    // The run has been interrupted and the remaining projects are already reported as failed.
+                    LOGGER.debug( "Not starting {} anymore.", project.getId() );
+                }
+            }
+        }
+
+        /**
+         * Releases the downstream projects of a finished project: they are submitted once they have nothing to wait
+         * for anymore or failed (together with their own downstream projects) if the project has failed.
+         */
+        private void finished( MavenProject project )
+        {
+            List<MavenProject> ready = new ArrayList<>();
+            synchronized ( this )
+            {
+                release( project, ready );
+            }
+            Collections.sort( ready, new Comparator<MavenProject>()
+            {
+                @Override
+                public int compare( MavenProject o1, MavenProject o2 )
+                {
+                    return Integer.compare( order.get( o1 ), order.get( o2 ) );
+                }
+            } );
+            submit( ready );
+            done.countDown();
+        }
+
+        private void release( MavenProject project, List<MavenProject> ready )
+        {
+            Throwable cause = summary.getFailed().get( project );
+            for ( MavenProject downstream : downstreams.get( project ) )
+            {
+                if ( cause != null )
+                {
+                    if ( !summary.getFailed().containsKey( downstream ) )
+                    {
+                        LOGGER.error( "The {} of {} is skipped because {} has failed.", name, downstream.getId(),
+                                      project.getId() );
+                        summary.failed( downstream, new MavenDeployerException(
+                            "Skipped because " + project.getId() + " has failed.", cause ) );
+                        release( downstream, ready );
+                        done.countDown();
+                    }
+                    continue;
+                }
+                int count = waitingFor.get( downstream ) - 1;
+                waitingFor.put( downstream, count );
+                if ( count == 0 && !summary.getFailed().containsKey( downstream ) )
+                {
+                    ready.add( downstream );
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates daemon threads named {@code deployer-<name>-<n>}, so a hanging transfer never keeps Maven alive.
+     */
+    static final class WorkerThreadFactory
+        implements ThreadFactory
+    {
+        private final String prefix;
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        WorkerThreadFactory( String name )
+        {
+            this.prefix = "deployer-" + name + "-";
+        }
+
+        @Override
+        public Thread newThread( Runnable runnable )
+        {
+            Thread thread = new Thread( runnable, prefix + counter.incrementAndGet() );
+            thread.setDaemon( true );
+            return thread;
+        }
+    }
+
+}
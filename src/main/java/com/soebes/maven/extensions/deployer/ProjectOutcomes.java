@@ -0,0 +1,179 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.maven.project.MavenProject;
+
+/**
+ * The outcome of every project of the build as reported by the events of Maven. With {@code -T} the events of
+ * different projects arrive concurrently from the threads of the builder, so everything here is lock-free. The
+ * projects of the reactor are looked up by identity in an index which is built once at the start of the session and
+ * their outcomes are changed by compare-and-set, so an event does not allocate anything (the {@code hashCode} of a
+ * {@link MavenProject} does). Any other project (for example the copy of a forked execution) ends up in a
+ * {@link ConcurrentHashMap}. A worse outcome always wins, a project which has failed once stays failed even if a later
+ * event reports it as succeeded.
+ */
+class ProjectOutcomes
+{
+    /**
+     * The outcomes of a project from the best to the worst.
+     */
+    enum Outcome
+    {
+        SUCCEEDED, SKIPPED, FAILED
+    }
+
+    /**
+     * The projects of the reactor and their outcomes, replaced as a whole at the start of a session.
+     */
+    private static final class Reactor
+    {
+        private final Map<MavenProject, Integer> index;
+
+        private final AtomicReferenceArray<Outcome> outcomes;
+
+        Reactor( List<MavenProject> projects )
+        {
+            Map<MavenProject, Integer> map = new IdentityHashMap<>( projects.size() );
+            for ( MavenProject project : projects )
+            {
+                if ( !map.containsKey( project ) )
+                {
+                    map.put( project, map.size() );
+                }
+            }
+            this.index = Collections.unmodifiableMap( map );
+            this.outcomes = new AtomicReferenceArray<>( map.size() );
+        }
+    }
+
+    private final ConcurrentMap<MavenProject, Outcome> others = new ConcurrentHashMap<>();
+
+    private volatile Reactor reactor = new Reactor( Collections.<MavenProject>emptyList() );
+
+    private volatile boolean failure;
+
+    /**
+     * Forgets all outcomes and indexes the projects of the reactor of a new session. Has to be called before the
+     * events of the projects arrive.
+     */
+    void begin( List<MavenProject> projects )
+    {
+        others.clear();
+        failure = false;
+        reactor = new Reactor( projects );
+    }
+
+    void succeeded( MavenProject project )
+    {
+        record( project, Outcome.SUCCEEDED );
+    }
+
+    void skipped( MavenProject project )
+    {
+        record( project, Outcome.SKIPPED );
+    }
+
+    /**
+     * Records the failure of the given project (or of a fork or a mojo of it). The failure of the build is recorded
+     * even if the event has no project.
+     */
+    void failed( MavenProject project )
+    {
+        failure = true;
+        if ( project != null )
+        {
+            record( project, Outcome.FAILED );
+        }
+    }
+
+    /**
+     * @return {@code true} if anything has failed in the build so far.
+     */
+    boolean isFailure()
+    {
+        return failure;
+    }
+
+    /**
+     * @return The outcome of the given project or {@code null} if there has been no outcome yet.
+     */
+    Outcome get( MavenProject project )
+    {
+        Reactor current = reactor;
+        Integer index = current.index.get( project );
+        return index != null ? current.outcomes.get( index ) : others.get( project );
+    }
+
+    /**
+     * @return The number of projects with the given outcome.
+     */
+    int count( Outcome outcome )
+    {
+        Reactor current = reactor;
+        int count = 0;
+        for ( int i = 0; i < current.outcomes.length(); i++ )
+        {
+            if ( current.outcomes.get( i ) == outcome )
+            {
+                count++;
+            }
+        }
+        for ( Outcome value : others.values() )
+        {
+            if ( value == outcome )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void record( MavenProject project, Outcome outcome )
+    {
+        Reactor current = reactor;
+        Integer index = current.index.get( project );
+        if ( index != null )
+        {
+            Outcome previous = current.outcomes.get( index );
+            while ( ( previous == null || previous.compareTo( outcome ) < 0 )
+                && !current.outcomes.compareAndSet( index, previous, outcome ) )
+            {
+                previous = current.outcomes.get( index );
+            }
+            return;
+        }
+        Outcome previous = others.putIfAbsent( project, outcome );
+        while ( previous != null && previous.compareTo( outcome ) < 0
+            && !others.replace( project, previous, outcome ) )
+        {
+            previous = others.get( project );
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.MavenProject;
+
+/**
+ * The projects of the reactor which are deployed into the same repository.
+ */
+final class RepositoryGroup
+{
+    private final String key;
+
+    private final ArtifactRepository repository;
+
+    private final List<MavenProject> projects = new ArrayList<>();
+
+    RepositoryGroup( String key, ArtifactRepository repository )
+    {
+        this.key = key;
+        this.repository = repository;
+    }
+
+    /**
+     * @return The id and the URL of the repository.
+     */
+    String getKey()
+    {
+        return key;
+    }
+
+    /**
+     * @return The repository or {@code null} for the projects without a repository.
+     */
+    ArtifactRepository getRepository()
+    {
+        return repository;
+    }
+
+    List<MavenProject> getProjects()
+    {
+        return Collections.unmodifiableList( projects );
+    }
+
+    void add( MavenProject project )
+    {
+        projects.add( project );
+    }
+
+    @Override
+    public String toString()
+    {
+        return key;
+    }
+
+}
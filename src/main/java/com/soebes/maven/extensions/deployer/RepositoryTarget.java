@@ -0,0 +1,46 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The place the {@link FileRepositoryDeployer} writes a repository in the default layout to. All paths are relative
+ * to the root of the repository and separated by {@code /}.
+ */
+interface RepositoryTarget
+{
+    /**
+     * @return The content of the given file or {@code null} if the file does not exist.
+     */
+    byte[] read( String path )
+        throws IOException;
+
+    /**
+     * Writes a copy of the given file.
+     */
+    void write( String path, File source )
+        throws IOException;
+
+    void write( String path, byte[] content )
+        throws IOException;
+
+}
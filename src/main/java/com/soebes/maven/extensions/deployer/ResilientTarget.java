@@ -0,0 +1,159 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link RepositoryTarget} which retries the failed reads and writes of another target with a {@link RetryPolicy}
+ * and hedges the writes of files with a {@link Hedging} (if there is one). The retries and the hedge of the last
+ * write of every path are kept for the report.
+ */
+class ResilientTarget
+    implements RepositoryTarget
+{
+    private final RepositoryTarget target;
+
+    private final RetryPolicy retryPolicy;
+
+    private final Hedging hedging;
+
+    private final Map<String, Integer> retries = new ConcurrentHashMap<>();
+
+    private final Map<String, Boolean> hedged = new ConcurrentHashMap<>();
+
+    /**
+     * @param hedging Hedges the writes of files or {@code null}.
+     */
+    ResilientTarget( RepositoryTarget target, RetryPolicy retryPolicy, Hedging hedging )
+    {
+        this.target = target;
+        this.retryPolicy = retryPolicy;
+        this.hedging = hedging;
+    }
+
+    RepositoryTarget getTarget()
+    {
+        return target;
+    }
+
+    @Override
+    public byte[] read( final String path )
+        throws IOException
+    {
+        final byte[][] content = new byte[1][];
+        run( "Reading " + path, path, new RetryPolicy.Action()
+        {
+            @Override
+            public void run()
+                throws IOException
+            {
+                content[0] = target.read( path );
+            }
+        } );
+        return content[0];
+    }
+
+    @Override
+    public void write( final String path, final File source )
+        throws IOException
+    {
+        final RetryPolicy.Action write = new RetryPolicy.Action()
+        {
+            @Override
+            public void run()
+                throws IOException
+            {
+                target.write( path, source );
+            }
+        };
+        hedged.remove( path );
+        run( "Writing " + path, path, hedging == null ? write : new RetryPolicy.Action()
+        {
+            @Override
+            public void run()
+                throws Exception
+            {
+                if ( hedging.run( path, source.length(), write ) )
+                {
+                    hedged.put( path, Boolean.TRUE );
+                }
+            }
+        } );
+    }
+
+    @Override
+    public void write( final String path, final byte[] content )
+        throws IOException
+    {
+        run( "Writing " + path, path, new RetryPolicy.Action()
+        {
+            @Override
+            public void run()
+                throws IOException
+            {
+                target.write( path, content );
+            }
+        } );
+    }
+
+    /**
+     * @return The number of retries of the last write of the given path.
+     */
+    int getRetries( String path )
+    {
+        Integer count = retries.get( path );
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * @return {@code true} if the last write of the given path has been hedged.
+     */
+    boolean isHedged( String path )
+    {
+        return hedged.containsKey( path );
+    }
+
+    private void run( String description, String path, RetryPolicy.Action action )
+        throws IOException
+    {
+        try
+        {
+            retries.put( path, retryPolicy.run( description, action ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            throw e;
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( description + " has been interrupted.", e );
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( description + " has failed.", e );
+        }
+    }
+
+}
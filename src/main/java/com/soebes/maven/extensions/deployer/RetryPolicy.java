@@ -0,0 +1,196 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Retries a failed transfer with an exponential backoff and full jitter: before the n-th retry the transfer waits a
+ * random time between zero and {@code min( maxDelay, delay * 2^(n-1) )}, so parallel workers which have failed at the
+ * same moment (for example because the repository has been restarted) do not come back at the same moment. Failures
+ * which won't go away by trying again (a missing file, a rejected request) are not retried.
+ */
+class RetryPolicy
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( RetryPolicy.class );
+
+    /**
+     * A transfer which can be repeated.
+     */
+    interface Action
+    {
+        void run()
+            throws Exception;
+    }
+
+    /**
+     * The failures of the Wagon transport which won't go away by trying again.
+     */
+    private static final Set<String> NOT_RETRYABLE =
+        new HashSet<>( Arrays.asList( "org.apache.maven.wagon.authorization.AuthorizationException",
+                                      "org.apache.maven.wagon.authentication.AuthenticationException" ) );
+
+    private final int retries;
+
+    private final long delayMillis;
+
+    private final long maxDelayMillis;
+
+    /**
+     * @param retries The maximum number of retries after the first attempt.
+     * @param delayMillis The upper bound of the wait before the first retry, doubled for every further retry.
+     * @param maxDelayMillis The maximum upper bound of the wait.
+     */
+    RetryPolicy( int retries, long delayMillis, long maxDelayMillis )
+    {
+        this.retries = Math.max( 0, retries );
+        this.delayMillis = Math.max( 0, delayMillis );
+        this.maxDelayMillis = Math.max( this.delayMillis, maxDelayMillis );
+    }
+
+    /**
+     * @return A policy which never retries.
+     */
+    static RetryPolicy none()
+    {
+        return new RetryPolicy( 0, 0, 0 );
+    }
+
+    int getRetries()
+    {
+        return retries;
+    }
+
+    /**
+     * Runs the action until it succeeds, it fails in a way which is not worth a retry or all retries are used up. The
+     * exception of the first attempt is thrown with the ones of the retries as suppressed exceptions, so a retry which
+     * fails differently (for example because a release is there partially now) does not hide the original cause.
+     *
+     * @param description What is transferred, for the log.
+     * @return The number of retries it took.
+     */
+    int run( String description, Action action )
+        throws Exception
+    {
+        Exception first = null;
+        for ( int retry = 0;; retry++ )
+        {
+            try
+            {
+                action.run();
+                return retry;
+            }
+            catch ( Exception e )
+            {
+                if ( first == null )
+                {
+                    first = e;
+                }
+                else
+                {
+                    first.addSuppressed( e );
+                }
+                if ( retry >= retries || !isRetryable( e ) )
+                {
+                    throw first;
+                }
+                long delay = delayMillis( retry + 1 );
+                LOGGER.warn( "{} has failed (attempt {} of {}): {}. Retrying in {} ms.", description, retry + 1,
+                             retries + 1, e.getMessage(), delay );
+                TimeUnit.MILLISECONDS.sleep( delay );
+            }
+        }
+    }
+
+    /**
+     * @return The wait before the given retry (starting with {@code 1}): a random value between zero and the
+     *         exponentially growing upper bound.
+     */
+    long delayMillis( int retry )
+    {
+        long bound = delayMillis;
+        for ( int i = 1; i < retry && bound < maxDelayMillis; i++ )
+        {
+            bound *= 2;
+        }
+        bound = Math.min( bound, maxDelayMillis );
+        return bound == 0 ? 0 : ThreadLocalRandom.current().nextLong( bound + 1 );
+    }
+
+    /**
+     * @return {@code false} for failures which will fail again: a project without a file, an interrupted thread, a
+     *         rejected login and a request the server has rejected (a client error other than timeout and too many
+     *         requests).
+     */
+    static boolean isRetryable( Throwable failure )
+    {
+        for ( Throwable cause = failure; cause != null; cause = cause.getCause() )
+        {
+            if ( cause instanceof NoFileAssignedException || cause instanceof InterruptedException
+                || NOT_RETRYABLE.contains( cause.getClass().getName() ) )
+            {
+                return false;
+            }
+            int status = status( cause );
+            if ( status > 0 )
+            {
+                return status < 400 || status >= 500 || status == 408 || status == 429;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The HTTP status of the given failure or {@code 0} if it has none. The transports of Maven are not on the
+     *         class path of the extension at compile time, so their exceptions are recognized by a public
+     *         {@code getStatusCode()} method (the {@code HttpResponseException} of the Apache HTTP client and the
+     *         {@code HttpTransporterException} of the resolver).
+     */
+    static int status( Throwable failure )
+    {
+        if ( failure instanceof HttpRepository.StatusException )
+        {
+            return ( (HttpRepository.StatusException) failure ).getStatus();
+        }
+        try
+        {
+            Method method = failure.getClass().getMethod( "getStatusCode" );
+            if ( method.getReturnType() == int.class )
+            {
+                return (Integer) method.invoke( failure );
+            }
+        }
+        catch ( ReflectiveOperationException | RuntimeException e )
+        {
+            // No status.
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.transfer.project.NoFileAssignedException;
+
+/**
+ * Orders the projects for a pool of workers by the size of their files, largest first (longest processing time
+ * first). A large project which starts last stretches the whole run, while the small ones (poms, checksums) fill the
+ * gaps at the end.
+ */
+final class SizeSchedule
+{
+    private SizeSchedule()
+    {
+        // Only static methods.
+    }
+
+    /**
+     * @return The given projects ordered by the size of their files, largest first. Projects of the same size keep
+     *         their order.
+     */
+    static List<MavenProject> largestFirst( List<MavenProject> projects )
+    {
+        final Map<MavenProject, Long> sizes = new HashMap<>();
+        for ( MavenProject project : projects )
+        {
+            sizes.put( project, size( project ) );
+        }
+        List<MavenProject> result = new ArrayList<>( projects );
+        Collections.sort( result, new Comparator<MavenProject>()
+        {
+            @Override
+            public int compare( MavenProject o1, MavenProject o2 )
+            {
+                return Long.compare( sizes.get( o2 ), sizes.get( o1 ) );
+            }
+        } );
+        return result;
+    }
+
+    /**
+     * @return The size of all files of the given project or {@code 0} if the project has no file (the task will report
+     *         that).
+     */
+    static long size( MavenProject project )
+    {
+        try
+        {
+            long size = 0;
+            for ( ArtifactFile artifactFile : ArtifactFile.of( project ) )
+            {
+                File file = artifactFile.getFile();
+                size += file == null ? 0 : file.length();
+            }
+            return size;
+        }
+        catch ( NoFileAssignedException e )
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * @return The makespan which the given tasks have with the given number of workers if they are scheduled
+     *         largest first and every task starts the moment a worker becomes free.
+     */
+    static long makespan( List<Long> durations, int workers )
+    {
+        List<Long> sorted = new ArrayList<>( durations );
+        Collections.sort( sorted, Collections.reverseOrder() );
+        PriorityQueue<Long> finished = new PriorityQueue<>();
+        for ( int i = 0; i < Math.max( 1, workers ); i++ )
+        {
+            finished.add( 0L );
+        }
+        long makespan = 0;
+        for ( Long duration : sorted )
+        {
+            long end = finished.poll() + duration;
+            makespan = Math.max( makespan, end );
+            finished.add( end );
+        }
+        return makespan;
+    }
+
+    /**
+     * @return The makespan no schedule can beat: the longest task or all work spread evenly over the workers.
+     */
+    static long lowerBound( List<Long> durations, int workers )
+    {
+        long total = 0;
+        long longest = 0;
+        for ( Long duration : durations )
+        {
+            total += duration;
+            longest = Math.max( longest, duration );
+        }
+        return Math.max( longest, total / Math.max( 1, workers ) );
+    }
+
+}
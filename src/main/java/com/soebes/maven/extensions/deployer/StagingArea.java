@@ -0,0 +1,293 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.project.MavenProject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The staging area of the pipelined mode. As soon as a project has been built successfully its artifacts are copied
+ * in the background into {@code target/deployer-staging} of the project while the other modules are still building.
+ * At the end of the session the staged set is promoted which means the artifacts of the projects are pointed to the
+ * staged copies, so the install and deploy work on exactly the files which existed when the project has finished. If
+ * any project fails the whole staged set is discarded. The digests of the files are calculated while copying them
+ * and kept in the {@link ChecksumCache}.
+ */
+class StagingArea
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger( StagingArea.class );
+
+    static final String DIRECTORY = "deployer-staging";
+
+    private final ChecksumCache checksumCache;
+
+    private final ExecutorService executor;
+
+    private final Map<MavenProject, List<StagedFile>> staged;
+
+    /**
+     * The staged copies the artifacts have been pointed to.
+     */
+    private final Set<File> promoted = Collections.newSetFromMap( new ConcurrentHashMap<File, Boolean>() );
+
+    private volatile boolean discarded;
+
+    StagingArea( ChecksumCache checksumCache )
+    {
+        this.checksumCache = checksumCache;
+        this.executor = Executors.newSingleThreadExecutor( new ThreadFactory()
+        {
+            @Override
+            public Thread newThread( Runnable runnable )
+            {
+                Thread thread = new Thread( runnable, "deployer-staging" );
+                thread.setDaemon( true );
+                return thread;
+            }
+        } );
+        this.staged = new ConcurrentHashMap<MavenProject, List<StagedFile>>();
+        this.discarded = false;
+    }
+
+    /**
+     * Copies the artifacts of the given project in the background into the staging area.
+     */
+    void stage( final MavenProject project )
+    {
+        if ( discarded )
+        {
+            return;
+        }
+        try
+        {
+            executor.execute( stagingTask( project ) );
+        }
+        catch ( RejectedExecutionException e )
+        {
+            // A failure has been reported in the meantime and the staging area is being discarded.
+            LOGGER.debug( "Staging of {} has been rejected.", project.getId() );
+        }
+    }
+
+    private Runnable stagingTask( final MavenProject project )
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    staged.put( project, copyArtifacts( project ) );
+                }
+                catch ( IOException e )
+                {
+                    // The project will be installed/deployed from its original files.
+                    LOGGER.warn( "Staging of " + project.getId() + " has failed.", e );
+                }
+            }
+        };
+    }
+
+    /**
+     * Waits until all projects have been staged and points the artifacts of the projects to the staged copies.
+     */
+    void promote()
+        throws InterruptedException
+    {
+        executor.shutdown();
+        executor.awaitTermination( Long.MAX_VALUE, TimeUnit.NANOSECONDS );
+
+        int files = 0;
+        for ( List<StagedFile> stagedFiles : staged.values() )
+        {
+            for ( StagedFile stagedFile : stagedFiles )
+            {
+                stagedFile.artifact.setFile( stagedFile.file );
+                promoted.add( stagedFile.file );
+                files++;
+            }
+        }
+        LOGGER.info( "Promoted {} staged files of {} projects.", files, staged.size() );
+    }
+
+    /**
+     * @return {@code true} if the given file is a promoted staged copy. It is owned by the extension and never changed
+     *         again, so a repository may share it with a hard link.
+     */
+    boolean isStaged( File file )
+    {
+        return promoted.contains( file );
+    }
+
+    /**
+     * Throws away everything which has been staged (or is about to be staged).
+     */
+    void discard()
+    {
+        if ( discarded )
+        {
+            return;
+        }
+        discarded = true;
+        executor.shutdownNow();
+        try
+        {
+            executor.awaitTermination( Long.MAX_VALUE, TimeUnit.NANOSECONDS );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        LOGGER.info( "Discarding the staged artifacts of {} projects.", staged.size() );
+        cleanUp();
+    }
+
+    /**
+     * Removes the staging directories of all staged projects.
+     */
+    void cleanUp()
+    {
+        for ( MavenProject project : staged.keySet() )
+        {
+            try
+            {
+                deleteRecursively( stagingDirectory( project ).toPath() );
+            }
+            catch ( IOException e )
+            {
+                LOGGER.warn( "Could not remove the staging directory of " + project.getId() + ".", e );
+            }
+        }
+        staged.clear();
+        promoted.clear();
+    }
+
+    private List<StagedFile> copyArtifacts( MavenProject project )
+        throws IOException
+    {
+        File directory = stagingDirectory( project );
+        deleteRecursively( directory.toPath() );
+        Files.createDirectories( directory.toPath() );
+
+        List<Artifact> artifacts = new ArrayList<Artifact>();
+        artifacts.add( project.getArtifact() );
+        artifacts.addAll( project.getAttachedArtifacts() );
+
+        List<StagedFile> result = new ArrayList<StagedFile>();
+        for ( Artifact artifact : artifacts )
+        {
+            File source = artifact.getFile();
+            if ( source == null || !source.isFile() )
+            {
+                continue;
+            }
+            // The index makes the name unique, e.g. a classifier based and a type based attachment.
+            File target = new File( directory, result.size() + "-" + source.getName() );
+            copy( source, target );
+            result.add( new StagedFile( artifact, target ) );
+        }
+        LOGGER.debug( "Staged {} files of {}.", result.size(), project.getId() );
+        return result;
+    }
+
+    /**
+     * Copies the file and calculates its digests in the same pass, so the bytes are read only once while they are
+     * most likely still in the page cache.
+     */
+    private void copy( File source, File target )
+        throws IOException
+    {
+        File temporary = AtomicFiles.temporaryFile( target );
+        Checksums checksums = ChecksumCalculator.copy( source, temporary );
+        Files.setLastModifiedTime( temporary.toPath(), Files.getLastModifiedTime( source.toPath() ) );
+        AtomicFiles.move( temporary, target );
+
+        checksumCache.put( source, checksums );
+        checksumCache.put( target, checksums );
+    }
+
+    private static File stagingDirectory( MavenProject project )
+    {
+        return new File( project.getBuild().getDirectory(), DIRECTORY );
+    }
+
+    private static void deleteRecursively( Path directory )
+        throws IOException
+    {
+        if ( !Files.exists( directory ) )
+        {
+            return;
+        }
+        Files.walkFileTree( directory, new SimpleFileVisitor<Path>()
+        {
+            @Override
+            public FileVisitResult visitFile( Path file, BasicFileAttributes attrs )
+                throws IOException
+            {
+                Files.delete( file );
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory( Path dir, IOException exc )
+                throws IOException
+            {
+                Files.delete( dir );
+                return FileVisitResult.CONTINUE;
+            }
+        } );
+    }
+
+    private static final class StagedFile
+    {
+        private final Artifact artifact;
+
+        private final File file;
+
+        StagedFile( Artifact artifact, File file )
+        {
+            this.artifact = artifact;
+            this.file = file;
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.InterruptedIOException;
+import java.util.Map;
+
+import org.eclipse.aether.transfer.TransferCancelledException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+
+/**
+ * Throttles the uploads of the generic transfer stack. The transports report every chunk of an upload to the
+ * transfer listener in the thread which sends it, so waiting for the {@link BandwidthLimiter} there holds back the
+ * upload itself. All events are forwarded to the listener of Maven.
+ */
+class ThrottlingTransferListener
+    implements TransferListener
+{
+    private final TransferListener delegate;
+
+    private final Map<String, BandwidthLimiter> limiters;
+
+    /**
+     * @param delegate The listener of the session or {@code null}.
+     * @param limiters The limiters by the URL of their repository (with a trailing {@code /}).
+     */
+    ThrottlingTransferListener( TransferListener delegate, Map<String, BandwidthLimiter> limiters )
+    {
+        this.delegate = delegate;
+        this.limiters = limiters;
+    }
+
+    /**
+     * @return The given URL with a trailing {@code /} like the transfer events have it.
+     */
+    static String normalize( String url )
+    {
+        return url.endsWith( "/" ) ? url : url + '/';
+    }
+
+    @Override
+    public void transferInitiated( TransferEvent event )
+        throws TransferCancelledException
+    {
+        if ( delegate != null )
+        {
+            delegate.transferInitiated( event );
+        }
+    }
+
+    @Override
+    public void transferStarted( TransferEvent event )
+        throws TransferCancelledException
+    {
+        if ( delegate != null )
+        {
+            delegate.transferStarted( event );
+        }
+    }
+
+    @Override
+    public void transferProgressed( TransferEvent event )
+        throws TransferCancelledException
+    {
+        if ( event.getRequestType() == TransferEvent.RequestType.PUT )
+        {
+            BandwidthLimiter limiter = limiters.get( normalize( event.getResource().getRepositoryUrl() ) );
+            if ( limiter != null )
+            {
+                try
+                {
+                    limiter.acquire( event.getDataLength() );
+                }
+                catch ( InterruptedIOException e )
+                {
+                    throw new TransferCancelledException( e.getMessage() );
+                }
+            }
+        }
+        if ( delegate != null )
+        {
+            delegate.transferProgressed( event );
+        }
+    }
+
+    @Override
+    public void transferCorrupted( TransferEvent event )
+        throws TransferCancelledException
+    {
+        if ( delegate != null )
+        {
+            delegate.transferCorrupted( event );
+        }
+    }
+
+    @Override
+    public void transferSucceeded( TransferEvent event )
+    {
+        if ( delegate != null )
+        {
+            delegate.transferSucceeded( event );
+        }
+    }
+
+    @Override
+    public void transferFailed( TransferEvent event )
+    {
+        if ( delegate != null )
+        {
+            delegate.transferFailed( event );
+        }
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The throughput which has been recorded by an earlier {@link DeployReport}: per repository from the transferred
+ * artifacts and per phase as a fallback for a repository which has not been used before.
+ */
+class Throughput
+{
+    private final Map<String, long[]> repositories = new HashMap<>();
+
+    private final Map<String, Double> phases = new HashMap<>();
+
+    private final File source;
+
+    private Throughput( File source )
+    {
+        this.source = source;
+    }
+
+    /**
+     * @return The throughput of the given report or an empty one if the report does not exist or can not be read.
+     */
+    static Throughput read( File report )
+    {
+        Throughput throughput = new Throughput( report );
+        if ( !report.isFile() )
+        {
+            return throughput;
+        }
+        try
+        {
+            String json = new String( Files.readAllBytes( report.toPath() ), StandardCharsets.UTF_8 );
+            throughput.parse( (Map<?, ?>) JsonReader.read( json ) );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            // A report which has been damaged or written by another version must not stop the build.
+            throughput.repositories.clear();
+            throughput.phases.clear();
+        }
+        return throughput;
+    }
+
+    private void parse( Map<?, ?> report )
+    {
+        Map<?, ?> reportPhases = (Map<?, ?>) report.get( "phases" );
+        if ( reportPhases != null )
+        {
+            for ( Map.Entry<?, ?> entry : reportPhases.entrySet() )
+            {
+                Object value = ( (Map<?, ?>) entry.getValue() ).get( "throughputBytesPerSecond" );
+                if ( value instanceof Double && (Double) value > 0 )
+                {
+                    phases.put( (String) entry.getKey(), (Double) value );
+                }
+            }
+        }
+        List<?> artifacts = (List<?>) report.get( "artifacts" );
+        if ( artifacts == null )
+        {
+            return;
+        }
+        for ( Object artifact : artifacts )
+        {
+            Map<?, ?> record = (Map<?, ?>) artifact;
+            Object size = record.get( "size" );
+            Object timeMillis = record.get( "timeMillis" );
+            if ( !Boolean.TRUE.equals( record.get( "success" ) ) || !( size instanceof Double )
+                || !( timeMillis instanceof Double ) )
+            {
+                continue;
+            }
+            String key = record.get( "phase" ) + " " + record.get( "repository" );
+            long[] totals = repositories.get( key );
+            if ( totals == null )
+            {
+                totals = new long[2];
+                repositories.put( key, totals );
+            }
+            totals[0] += ( (Double) size ).longValue();
+            totals[1] += (long) ( (Double) timeMillis * 1000000 );
+        }
+    }
+
+    /**
+     * @return The report the throughput has been read from.
+     */
+    File getSource()
+    {
+        return source;
+    }
+
+    boolean isEmpty()
+    {
+        return repositories.isEmpty() && phases.isEmpty();
+    }
+
+    /**
+     * @return The bytes per second of a single transfer into the given repository in the given phase or {@code 0} if
+     *         nothing is known.
+     */
+    double get( String phase, String repository )
+    {
+        long[] totals = repositories.get( phase + " " + repository );
+        if ( totals != null && totals[0] > 0 && totals[1] > 0 )
+        {
+            return totals[0] * 1e9 / totals[1];
+        }
+        Double value = phases.get( phase );
+        return value == null ? 0 : value;
+    }
+
+}
@@ -0,0 +1,266 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryListener;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * Collects the size and the duration of every artifact which is installed or deployed. The transfers done by the
+ * resolver are observed via a {@link RepositoryListener} which is put into a copy of the repository session, the
+ * {@link FileRepositoryDeployer} records its files directly.
+ */
+class TransferMetrics
+{
+    static final String INSTALL = "install";
+
+    static final String DEPLOY = "deploy";
+
+    static final String SESSION_STARTED = "sessionStarted";
+
+    static final String SESSION_ENDED = "sessionEnded";
+
+    private final Queue<TransferRecord> records = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The start of the transfers which are running at the moment.
+     */
+    private final ConcurrentMap<String, Long> running = new ConcurrentHashMap<>();
+
+    /**
+     * The number of failed attempts per transfer, so a following successful attempt can be counted as a retry.
+     */
+    private final ConcurrentMap<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> times = new ConcurrentHashMap<>();
+
+    private final Queue<PoolStatistics> pools = new ConcurrentLinkedQueue<>();
+
+    private final Queue<AdaptiveConcurrency> concurrencies = new ConcurrentLinkedQueue<>();
+
+    private final Queue<CircuitBreaker> circuitBreakers = new ConcurrentLinkedQueue<>();
+
+    private final Queue<IdenticalArtifacts> identicalArtifacts = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @return A copy of the given request whose repository session reports the transfers to this instance.
+     */
+    ProjectBuildingRequest attach( ProjectBuildingRequest request )
+    {
+        RepositorySystemSession session = request.getRepositorySession();
+        DefaultRepositorySystemSession observed = new DefaultRepositorySystemSession( session );
+        observed.setRepositoryListener( new Listener( session.getRepositoryListener() ) );
+        return new DefaultProjectBuildingRequest( request ).setRepositorySession( observed );
+    }
+
+    void record( TransferRecord record )
+    {
+        records.add( record );
+    }
+
+    /**
+     * @param name {@link #INSTALL}, {@link #DEPLOY}, {@link #SESSION_STARTED} or {@link #SESSION_ENDED}.
+     * @param nanos The wall time of the whole step.
+     */
+    void time( String name, long nanos )
+    {
+        times.put( name, nanos );
+    }
+
+    /**
+     * Adds the utilization of the workers of a repository.
+     */
+    void add( PoolStatistics statistics )
+    {
+        pools.add( statistics );
+    }
+
+    List<PoolStatistics> getPools()
+    {
+        return new ArrayList<>( pools );
+    }
+
+    /**
+     * Adds the adaptive concurrency of a repository.
+     */
+    void add( AdaptiveConcurrency concurrency )
+    {
+        concurrencies.add( concurrency );
+    }
+
+    List<AdaptiveConcurrency> getConcurrencies()
+    {
+        return new ArrayList<>( concurrencies );
+    }
+
+    /**
+     * Adds the circuit breaker of a repository.
+     */
+    void add( CircuitBreaker circuitBreaker )
+    {
+        circuitBreakers.add( circuitBreaker );
+    }
+
+    List<CircuitBreaker> getCircuitBreakers()
+    {
+        return new ArrayList<>( circuitBreakers );
+    }
+
+    /**
+     * Adds the files of a repository which have not been uploaded because they are there already.
+     */
+    void add( IdenticalArtifacts identical )
+    {
+        identicalArtifacts.add( identical );
+    }
+
+    List<IdenticalArtifacts> getIdenticalArtifacts()
+    {
+        return new ArrayList<>( identicalArtifacts );
+    }
+
+    List<TransferRecord> getRecords()
+    {
+        return new ArrayList<>( records );
+    }
+
+    /**
+     * @return The wall time of the given step in nanoseconds or {@code 0} if the step has not been executed.
+     */
+    long getTime( String name )
+    {
+        Long nanos = times.get( name );
+        return nanos == null ? 0 : nanos;
+    }
+
+    boolean isEmpty()
+    {
+        return records.isEmpty();
+    }
+
+    private void started( String phase, RepositoryEvent event )
+    {
+        running.put( key( phase, event ), System.nanoTime() );
+    }
+
+    private void finished( String phase, RepositoryEvent event )
+    {
+        String key = key( phase, event );
+        Long start = running.remove( key );
+        if ( start == null )
+        {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        boolean success = event.getException() == null;
+        int retries;
+        if ( success )
+        {
+            Integer failed = failedAttempts.remove( key );
+            retries = failed == null ? 0 : failed;
+        }
+        else
+        {
+            retries = failedAttempts.merge( key, 1, Integer::sum ) - 1;
+        }
+
+        File file = event.getArtifact().getFile();
+        long size = file != null ? file.length() : 0;
+        record( new TransferRecord( phase, event.getArtifact().toString(), repository( event.getRepository() ), size,
+                                    nanos, retries, false, success ) );
+    }
+
+    private static String key( String phase, RepositoryEvent event )
+    {
+        return phase + ' ' + event.getArtifact() + ' ' + repository( event.getRepository() );
+    }
+
+    private static String repository( ArtifactRepository repository )
+    {
+        if ( repository == null )
+        {
+            return null;
+        }
+        if ( repository instanceof RemoteRepository )
+        {
+            return repository.getId() + " (" + ( (RemoteRepository) repository ).getUrl() + ")";
+        }
+        return repository.getId();
+    }
+
+    static double millis( long nanos )
+    {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos( 1 );
+    }
+
+    private class Listener
+        extends ForwardingRepositoryListener
+    {
+        Listener( RepositoryListener delegate )
+        {
+            super( delegate );
+        }
+
+        @Override
+        public void artifactInstalling( RepositoryEvent event )
+        {
+            started( INSTALL, event );
+            super.artifactInstalling( event );
+        }
+
+        @Override
+        public void artifactInstalled( RepositoryEvent event )
+        {
+            finished( INSTALL, event );
+            super.artifactInstalled( event );
+        }
+
+        @Override
+        public void artifactDeploying( RepositoryEvent event )
+        {
+            started( DEPLOY, event );
+            super.artifactDeploying( event );
+        }
+
+        @Override
+        public void artifactDeployed( RepositoryEvent event )
+        {
+            finished( DEPLOY, event );
+            super.artifactDeployed( event );
+        }
+    }
+
+}
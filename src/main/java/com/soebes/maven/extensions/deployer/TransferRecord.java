@@ -0,0 +1,107 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+/**
+ * The measurement of a single artifact which has been installed or deployed.
+ */
+final class TransferRecord
+{
+    private final String phase;
+
+    private final String coordinates;
+
+    private final String repository;
+
+    private final long size;
+
+    private final long nanos;
+
+    private final int retries;
+
+    private final boolean hedged;
+
+    private final boolean success;
+
+    TransferRecord( String phase, String coordinates, String repository, long size, long nanos, int retries,
+                    boolean hedged, boolean success )
+    {
+        this.phase = phase;
+        this.coordinates = coordinates;
+        this.repository = repository;
+        this.size = size;
+        this.nanos = nanos;
+        this.retries = retries;
+        this.hedged = hedged;
+        this.success = success;
+    }
+
+    /**
+     * @return {@code install} or {@code deploy}.
+     */
+    String getPhase()
+    {
+        return phase;
+    }
+
+    String getCoordinates()
+    {
+        return coordinates;
+    }
+
+    String getRepository()
+    {
+        return repository;
+    }
+
+    long getSize()
+    {
+        return size;
+    }
+
+    long getNanos()
+    {
+        return nanos;
+    }
+
+    int getRetries()
+    {
+        return retries;
+    }
+
+    /**
+     * @return {@code true} if a second upload has been started because the first one took too long.
+     */
+    boolean isHedged()
+    {
+        return hedged;
+    }
+
+    boolean isSuccess()
+    {
+        return success;
+    }
+
+    long getBytesPerSecond()
+    {
+        return nanos > 0 ? (long) ( size * 1e9 / nanos ) : 0;
+    }
+
+}
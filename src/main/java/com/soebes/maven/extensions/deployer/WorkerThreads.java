@@ -0,0 +1,54 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates the worker threads of the install and the deployment. On Java 8 up to 20 these are always platform threads
+ * of a {@link ProjectExecutor.WorkerThreadFactory}. The multi-release jar contains a variant of this class for Java 21
+ * and later ({@code META-INF/versions/21}) which creates virtual threads instead.
+ */
+final class WorkerThreads
+{
+    private WorkerThreads()
+    {
+        // Only static methods.
+    }
+
+    /**
+     * @return {@code true} if the running Java supports virtual threads.
+     */
+    static boolean isVirtualAvailable()
+    {
+        return false;
+    }
+
+    /**
+     * @param name The name of the work (for example {@code deploy}) used for the thread names.
+     * @param virtual {@code true} if virtual threads should be used where available.
+     * @return A factory of threads named {@code deployer-<name>-<n>} which never keep Maven alive.
+     */
+    static ThreadFactory newThreadFactory( String name, boolean virtual )
+    {
+        return new ProjectExecutor.WorkerThreadFactory( name );
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.soebes.maven.extensions.deployer;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The variant of the worker threads for Java 21 and later: the install and the deployment mostly wait for blocking
+ * I/O, so every project gets a virtual thread instead of occupying a platform thread. The number of projects handled
+ * in parallel is still bounded by the pool of the {@link ProjectExecutor}.
+ */
+final class WorkerThreads
+{
+    private WorkerThreads()
+    {
+        // Only static methods.
+    }
+
+    /**
+     * @return {@code true} if the running Java supports virtual threads.
+     */
+    static boolean isVirtualAvailable()
+    {
+        return true;
+    }
+
+    /**
+     * @param name The name of the work (for example {@code deploy}) used for the thread names.
+     * @param virtual {@code true} if virtual threads should be used, otherwise platform threads.
+     * @return A factory of threads named {@code deployer-<name>-<n>} which never keep Maven alive (virtual threads are
+     *         always daemon threads).
+     */
+    static ThreadFactory newThreadFactory( String name, boolean virtual )
+    {
+        if ( !virtual )
+        {
+            return new ProjectExecutor.WorkerThreadFactory( name );
+        }
+        return Thread.ofVirtual().name( "deployer-" + name + "-", 1 ).factory();
+    }
+
+}